@@ -0,0 +1,134 @@
+package passvault.apigateway.auth;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+import passvault.apigateway.config.AuthFilterConfig;
+
+import javax.crypto.SecretKey;
+import java.security.Key;
+import java.security.PublicKey;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the key material used to verify access tokens inside the gateway.
+ * HS256 tokens are checked against the shared secret from configuration until
+ * the legacy cutoff, if one is set, while tokens carrying a "kid" header are
+ * checked against the key set published by auth-service, which is loaded at
+ * startup and refreshed periodically.
+ */
+@Slf4j
+@Component
+public class JwtKeyProvider {
+
+    private final RestClient authServiceClient;
+    private final AuthFilterConfig authFilterConfig;
+    private final SecretKey hmacKey;
+    private final AtomicLong lastRefreshNanos = new AtomicLong();
+
+    private volatile Map<String, PublicKey> publishedKeys = Map.of();
+
+    public JwtKeyProvider(RestClient authServiceClient, AuthFilterConfig authFilterConfig) {
+        this.authServiceClient = authServiceClient;
+        this.authFilterConfig = authFilterConfig;
+        String secret = authFilterConfig.getJwt().getSecret();
+        this.hmacKey = StringUtils.hasText(secret) ? Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret)) : null;
+    }
+
+    /**
+     * Returns the key for the given token header, or null when the gateway has
+     * no key that can verify it.
+     *
+     * @throws UnsupportedJwtException for a token without kid past the legacy HS256 cutoff
+     */
+    public Key findKey(String keyId, String algorithm) {
+        if (keyId == null) {
+            Instant until = authFilterConfig.getJwt().getAcceptLegacyHs256Until();
+            if (until != null && !Instant.now().isBefore(until)) {
+                throw new UnsupportedJwtException("HMAC signed tokens are no longer accepted");
+            }
+            return algorithm != null && algorithm.startsWith("HS") ? hmacKey : null;
+        }
+        PublicKey key = publishedKeys.get(keyId);
+        if (key == null && refreshIfStale()) {
+            key = publishedKeys.get(keyId);
+        }
+        return key;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        refresh();
+    }
+
+    @Scheduled(initialDelayString = "${gateway.auth.jwt.key-refresh-interval:PT5M}",
+            fixedDelayString = "${gateway.auth.jwt.key-refresh-interval:PT5M}")
+    public void refresh() {
+        if (authFilterConfig.getValidationMode() != AuthFilterConfig.ValidationMode.LOCAL) {
+            return;
+        }
+        lastRefreshNanos.set(System.nanoTime());
+        try {
+            String json = authServiceClient.get()
+                    .uri(authFilterConfig.getJwt().getJwksPath())
+                    .retrieve()
+                    .body(String.class);
+            publishedKeys = parseKeySet(json);
+            log.debug("Loaded {} verification key(s) from auth-service", publishedKeys.size());
+        } catch (HttpClientErrorException e) {
+            if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
+                log.debug("auth-service does not publish a key set, only HS256 tokens are verified locally");
+            } else {
+                log.warn("Could not load verification keys from auth-service: {}", e.getMessage());
+            }
+        } catch (RestClientException | JwtException | IllegalArgumentException e) {
+            log.warn("Could not load verification keys from auth-service: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Refreshes the key set on demand when a token references an unknown key,
+     * at most once per configured minimum interval.
+     */
+    private boolean refreshIfStale() {
+        long last = lastRefreshNanos.get();
+        long minInterval = authFilterConfig.getJwt().getMinKeyRefreshInterval().toNanos();
+        if (System.nanoTime() - last < minInterval || !lastRefreshNanos.compareAndSet(last, System.nanoTime())) {
+            return false;
+        }
+        refresh();
+        return true;
+    }
+
+    private static Map<String, PublicKey> parseKeySet(String json) {
+        if (!StringUtils.hasText(json)) {
+            return Map.of();
+        }
+        JwkSet jwkSet = Jwks.setParser().ignoreUnsupported(true).build().parse(json);
+        Map<String, PublicKey> keys = new HashMap<>();
+        for (Jwk<?> jwk : jwkSet.getKeys()) {
+            Key key = jwk.toKey();
+            if (jwk.getId() != null && key instanceof PublicKey publicKey) {
+                keys.put(jwk.getId(), publicKey);
+            }
+        }
+        return Map.copyOf(keys);
+    }
+}
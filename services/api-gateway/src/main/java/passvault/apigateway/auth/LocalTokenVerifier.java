@@ -0,0 +1,105 @@
+package passvault.apigateway.auth;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import passvault.apigateway.config.AuthFilterConfig;
+import passvault.apigateway.dto.TokenValidationResponse;
+
+import java.security.Key;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Verifies access tokens in-process: signature, expiry and the userId,
+ * username and roles claims issued by auth-service. Revocation is checked by
+ * {@link TokenValidationService}.
+ */
+@Slf4j
+@Component
+public class LocalTokenVerifier {
+
+    private static final String INVALID_TOKEN_MESSAGE = "Token is invalid or expired";
+    /** Issue time in milliseconds, set by auth-service next to iat. */
+    private static final String ISSUED_AT_MILLIS_CLAIM = "issuedAtMillis";
+    /** Login session the token was issued for. */
+    private static final String SESSION_ID_CLAIM = "sid";
+
+    private final JwtParser parser;
+
+    public LocalTokenVerifier(JwtKeyProvider keyProvider, AuthFilterConfig authFilterConfig) {
+        this.parser = Jwts.parser()
+                .keyLocator(new KeyLocator(keyProvider))
+                .clockSkewSeconds(authFilterConfig.getJwt().getClockSkew().toSeconds())
+                .build();
+    }
+
+    /**
+     * Returns the validation outcome, or an empty result when the gateway holds
+     * no key for the token and the caller has to ask auth-service instead.
+     */
+    public Optional<TokenValidationResponse> verify(String token) {
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            return Optional.of(toResponse(claims));
+        } catch (SigningKeyUnavailableException e) {
+            return Optional.empty();
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Local token verification failed: {}", e.getMessage());
+            return Optional.of(TokenValidationResponse.invalid(INVALID_TOKEN_MESSAGE));
+        }
+    }
+
+    private static TokenValidationResponse toResponse(Claims claims) {
+        String username = claims.getSubject();
+        String userId = claims.get("userId", String.class);
+        String roles = claims.get("roles", String.class);
+        String sessionId = claims.get(SESSION_ID_CLAIM, String.class);
+        if (!StringUtils.hasText(username) || !StringUtils.hasText(userId) || roles == null) {
+            return TokenValidationResponse.invalid(INVALID_TOKEN_MESSAGE);
+        }
+        return TokenValidationResponse.valid(username, UUID.fromString(userId),
+                Set.of(StringUtils.commaDelimitedListToStringArray(roles)), claims.getId(),
+                sessionId != null ? UUID.fromString(sessionId) : null, issuedAtMillis(claims));
+    }
+
+    private static Long issuedAtMillis(Claims claims) {
+        Number issuedAtMillis = claims.get(ISSUED_AT_MILLIS_CLAIM, Number.class);
+        if (issuedAtMillis != null) {
+            return issuedAtMillis.longValue();
+        }
+        return claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : null;
+    }
+
+    private static class KeyLocator extends LocatorAdapter<Key> {
+
+        private final JwtKeyProvider keyProvider;
+
+        KeyLocator(JwtKeyProvider keyProvider) {
+            this.keyProvider = keyProvider;
+        }
+
+        @Override
+        protected Key locate(JwsHeader header) {
+            Key key = keyProvider.findKey(header.getKeyId(), header.getAlgorithm());
+            if (key == null) {
+                throw new SigningKeyUnavailableException(header.getKeyId());
+            }
+            return key;
+        }
+    }
+
+    private static class SigningKeyUnavailableException extends RuntimeException {
+
+        SigningKeyUnavailableException(String keyId) {
+            super("No verification key available for kid " + keyId, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package passvault.apigateway.auth;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import passvault.apigateway.dto.TokenValidationResponse;
+
+/**
+ * Validates tokens by calling auth-service's /api/auth/validate endpoint.
+ */
+@Component
+public class RemoteTokenValidator {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final RestClient authServiceClient;
+
+    public RemoteTokenValidator(RestClient authServiceClient) {
+        this.authServiceClient = authServiceClient;
+    }
+
+    public TokenValidationResponse validate(String token) {
+        return authServiceClient.get()
+                .uri("/api/auth/validate")
+                .header(HttpHeaders.AUTHORIZATION, BEARER_PREFIX + token)
+                .retrieve()
+                .body(TokenValidationResponse.class);
+    }
+}
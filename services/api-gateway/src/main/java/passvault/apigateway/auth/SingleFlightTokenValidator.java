@@ -0,0 +1,81 @@
+package passvault.apigateway.auth;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import passvault.apigateway.dto.TokenValidationResponse;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * De-duplicates concurrent auth-service validations of the same token. The
+ * first caller performs the upstream call; callers arriving while it is in
+ * flight wait for it and share its result or its exception. Calls are keyed
+ * by the token's SHA-256 hash, like {@link TokenValidationCache}.
+ */
+@Component
+public class SingleFlightTokenValidator {
+
+    private static final String CALLS_METRIC = "gateway.auth.validation.calls";
+
+    private final RemoteTokenValidator remoteTokenValidator;
+    private final Map<String, CompletableFuture<TokenValidationResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Counter originatedCalls;
+    private final Counter coalescedCalls;
+
+    public SingleFlightTokenValidator(RemoteTokenValidator remoteTokenValidator, MeterRegistry meterRegistry) {
+        this.remoteTokenValidator = remoteTokenValidator;
+        this.originatedCalls = Counter.builder(CALLS_METRIC)
+                .description("Token validations sent to auth-service")
+                .tag("origin", "originated")
+                .register(meterRegistry);
+        this.coalescedCalls = Counter.builder(CALLS_METRIC)
+                .description("Token validations that joined an identical call already in flight")
+                .tag("origin", "coalesced")
+                .register(meterRegistry);
+        Gauge.builder("gateway.auth.validation.in-flight", inFlight, Map::size)
+                .description("Distinct token validations currently in flight")
+                .register(meterRegistry);
+    }
+
+    public TokenValidationResponse validate(String token) {
+        String key = TokenValidationCache.keyOf(token);
+        CompletableFuture<TokenValidationResponse> call = new CompletableFuture<>();
+        CompletableFuture<TokenValidationResponse> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            coalescedCalls.increment();
+            return await(existing);
+        }
+
+        originatedCalls.increment();
+        try {
+            TokenValidationResponse response = remoteTokenValidator.validate(token);
+            call.complete(response);
+            return response;
+        } catch (Throwable e) {
+            // Errors too, otherwise waiters would block on the call forever
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private static TokenValidationResponse await(CompletableFuture<TokenValidationResponse> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package passvault.apigateway.auth;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.ExchangeTypes;
+import org.springframework.amqp.rabbit.annotation.Exchange;
+import org.springframework.amqp.rabbit.annotation.Queue;
+import org.springframework.amqp.rabbit.annotation.QueueBinding;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+import passvault.apigateway.config.AuthFilterConfig;
+import passvault.apigateway.config.RabbitMQConfig;
+import passvault.apigateway.event.TokenRevokedEvent;
+
+import java.util.UUID;
+
+/**
+ * Keeps the gateway's {@link RevocationList} in line with auth-service:
+ * revocations are applied as they are broadcast, and the full list of
+ * revocations still in effect is reloaded on startup and periodically, which
+ * covers events missed while the gateway or the broker was down.
+ */
+@Slf4j
+@Component
+public class TokenRevocationSync {
+
+    private static final String INTERNAL_API_KEY_HEADER = "X-Internal-Api-Key";
+
+    private final RevocationList revocationList;
+    private final RestClient authServiceClient;
+    private final AuthFilterConfig.Revocation config;
+
+    public TokenRevocationSync(RevocationList revocationList, RestClient authServiceClient,
+            AuthFilterConfig authFilterConfig) {
+        this.revocationList = revocationList;
+        this.authServiceClient = authServiceClient;
+        this.config = authFilterConfig.getRevocation();
+    }
+
+    /**
+     * auth-service refuses snapshot requests without the internal key, so
+     * without one only revocations broadcast while the gateway runs are known.
+     */
+    @PostConstruct
+    void checkApiKey() {
+        if (config.isEnabled() && !StringUtils.hasText(config.getApiKey())) {
+            log.error("gateway.auth.revocation.api-key is not set (INTERNAL_API_KEY): revocations made before "
+                    + "startup or missed while the broker was down are not loaded");
+        }
+    }
+
+    @RabbitListener(autoStartup = "${gateway.auth.revocation.enabled:true}", bindings = @QueueBinding(
+            value = @Queue(exclusive = "true", autoDelete = "true"),
+            exchange = @Exchange(value = RabbitMQConfig.TOKEN_REVOCATIONS_EXCHANGE, type = ExchangeTypes.FANOUT)))
+    public void handleTokenRevoked(TokenRevokedEvent event) {
+        apply(event);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${gateway.auth.revocation.resync-interval:PT1M}",
+            fixedDelayString = "${gateway.auth.revocation.resync-interval:PT1M}")
+    public void resync() {
+        if (!config.isEnabled() || !StringUtils.hasText(config.getApiKey())) {
+            return;
+        }
+        try {
+            TokenRevokedEvent[] revocations = authServiceClient.get()
+                    .uri(config.getSnapshotPath())
+                    .header(INTERNAL_API_KEY_HEADER, config.getApiKey())
+                    .retrieve()
+                    .body(TokenRevokedEvent[].class);
+            if (revocations != null) {
+                for (TokenRevokedEvent event : revocations) {
+                    apply(event);
+                }
+            }
+            revocationList.purgeExpired(System.currentTimeMillis());
+            log.debug("Revocation list resynced, {} active entries", revocationList.size());
+        } catch (RestClientException e) {
+            log.warn("Could not load token revocations from auth-service: {}", e.getMessage());
+        }
+    }
+
+    private void apply(TokenRevokedEvent event) {
+        if (event.getExpiresAt() == null) {
+            return;
+        }
+        long expiresAt = event.getExpiresAt().toEpochMilli();
+        if (event.getTokenId() != null) {
+            revocationList.revokeToken(event.getTokenId(), expiresAt);
+        }
+        if (event.getSessionId() != null) {
+            revocationList.revokeSession(UUID.fromString(event.getSessionId()), expiresAt);
+        }
+        if (event.getUserId() != null && event.getIssuedBefore() != null) {
+            revocationList.revokeUser(UUID.fromString(event.getUserId()),
+                    event.getIssuedBefore().toEpochMilli(), expiresAt);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package passvault.apigateway.auth;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import passvault.apigateway.config.AuthFilterConfig;
+import passvault.apigateway.dto.TokenValidationResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of auth-service validation results, keyed by the SHA-256 hash
+ * of the token so raw tokens are never held in memory. Valid results live at
+ * most until the token's "exp" claim; invalid results are kept briefly so a
+ * replayed bad token does not reach auth-service on every request.
+ */
+@Slf4j
+@Component
+public class TokenValidationCache {
+
+    private static final String CACHE_NAME = "gateway.token-validation";
+
+    private final AuthFilterConfig.Cache config;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Cache<String, CachedValidation> cache;
+
+    public TokenValidationCache(AuthFilterConfig authFilterConfig, MeterRegistry meterRegistry) {
+        this.config = authFilterConfig.getCache();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfter(new CachedValidationExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the cached result for the token, or calls the loader and caches
+     * what it returns. Exceptions from the loader are not cached.
+     */
+    public TokenValidationResponse get(String token, Function<String, TokenValidationResponse> loader) {
+        if (!config.isEnabled()) {
+            return loader.apply(token);
+        }
+        String key = keyOf(token);
+        CachedValidation cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached.response();
+        }
+        TokenValidationResponse response = loader.apply(token);
+        if (response != null) {
+            cache.put(key, new CachedValidation(response, ttlNanos(token, response)));
+        }
+        return response;
+    }
+
+    private long ttlNanos(String token, TokenValidationResponse response) {
+        if (!response.isValid()) {
+            return config.getNegativeTtl().toNanos();
+        }
+        long ttl = config.getTtl().toNanos();
+        long expiresAtSeconds = readExpiry(token);
+        if (expiresAtSeconds > 0) {
+            long untilExpiry = TimeUnit.SECONDS.toNanos(expiresAtSeconds) - TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+            ttl = Math.min(ttl, Math.max(untilExpiry, 0));
+        }
+        return ttl;
+    }
+
+    /**
+     * Reads the "exp" claim without verifying the signature. This is only used
+     * to bound the lifetime of a result auth-service has already vouched for.
+     */
+    private long readExpiry(String token) {
+        int first = token.indexOf('.');
+        int second = token.indexOf('.', first + 1);
+        if (first < 0 || second < 0) {
+            return -1;
+        }
+        try {
+            byte[] payload = Base64.getUrlDecoder().decode(token.substring(first + 1, second));
+            JsonNode exp = objectMapper.readTree(payload).get("exp");
+            return exp != null && exp.canConvertToLong() ? exp.asLong() : -1;
+        } catch (Exception e) {
+            log.debug("Could not read token expiry: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * SHA-256 of the token, the form in which tokens are used as map keys.
+     */
+    static String keyOf(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record CachedValidation(TokenValidationResponse response, long ttlNanos) {
+    }
+
+    private static class CachedValidationExpiry implements Expiry<String, CachedValidation> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedValidation value, long currentTime) {
+            return value.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedValidation value, long currentTime, long currentDuration) {
+            return value.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedValidation value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package passvault.apigateway.auth;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import passvault.apigateway.config.AuthFilterConfig;
+import passvault.apigateway.dto.TokenValidationResponse;
+
+import java.util.Optional;
+
+/**
+ * Entry point for token validation. In LOCAL mode tokens are verified
+ * in-process and auth-service is only called when no key is available for the
+ * token; in REMOTE mode every token is validated by auth-service. Calls to
+ * auth-service go through {@link TokenValidationCache} and are coalesced per
+ * token by {@link SingleFlightTokenValidator}. Either way a valid result is
+ * checked against the {@link RevocationList} last, so a token revoked after
+ * its result was cached is still rejected.
+ */
+@Slf4j
+@Service
+public class TokenValidationService {
+
+    private static final String REVOKED_TOKEN_MESSAGE = "Token has been revoked";
+
+    private final LocalTokenVerifier localTokenVerifier;
+    private final SingleFlightTokenValidator singleFlightTokenValidator;
+    private final TokenValidationCache tokenValidationCache;
+    private final RevocationList revocationList;
+    private final AuthFilterConfig authFilterConfig;
+
+    public TokenValidationService(LocalTokenVerifier localTokenVerifier,
+            SingleFlightTokenValidator singleFlightTokenValidator,
+            TokenValidationCache tokenValidationCache,
+            RevocationList revocationList,
+            AuthFilterConfig authFilterConfig) {
+        this.localTokenVerifier = localTokenVerifier;
+        this.singleFlightTokenValidator = singleFlightTokenValidator;
+        this.tokenValidationCache = tokenValidationCache;
+        this.revocationList = revocationList;
+        this.authFilterConfig = authFilterConfig;
+    }
+
+    public TokenValidationResponse validate(String token) {
+        return checkRevoked(verify(token));
+    }
+
+    private TokenValidationResponse verify(String token) {
+        if (authFilterConfig.getValidationMode() == AuthFilterConfig.ValidationMode.LOCAL) {
+            Optional<TokenValidationResponse> local = localTokenVerifier.verify(token);
+            if (local.isPresent()) {
+                return local.get();
+            }
+            log.debug("No local verification key for token, falling back to auth-service");
+        }
+        return tokenValidationCache.get(token, singleFlightTokenValidator::validate);
+    }
+
+    private TokenValidationResponse checkRevoked(TokenValidationResponse response) {
+        if (!response.isValid() || !authFilterConfig.getRevocation().isEnabled()) {
+            return response;
+        }
+        long issuedAt = response.getIssuedAtMillis() != null ? response.getIssuedAtMillis() : 0L;
+        if (revocationList.isRevoked(response.getTokenId(), response.getUserId(), response.getSessionId(),
+                issuedAt)) {
+            return TokenValidationResponse.invalid(REVOKED_TOKEN_MESSAGE);
+        }
+        return response;
+    }
+}
@@ -4,6 +4,8 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -14,4 +16,66 @@ public class AuthFilterConfig {
     private List<String> openEndpoints = new ArrayList<>();
     private String userIdHeader = "X-User-Id";
     private String usernameHeader = "X-Username";
+
+    /**
+     * LOCAL verifies tokens in-process and only calls auth-service when no
+     * matching key is available. REMOTE always calls /api/auth/validate.
+     */
+    private ValidationMode validationMode = ValidationMode.REMOTE;
+    private Jwt jwt = new Jwt();
+    private Cache cache = new Cache();
+    private Revocation revocation = new Revocation();
+
+    public enum ValidationMode {
+        LOCAL,
+        REMOTE
+    }
+
+    @Data
+    public static class Jwt {
+        /**
+         * Base64 encoded HMAC secret shared with auth-service (jwt.secret), used
+         * for HS256 tokens. Leave empty to rely on published keys only.
+         */
+        private String secret;
+        /**
+         * Tokens without a kid are rejected from this instant on, matching
+         * auth-service's jwt.signing.accept-legacy-hs256-until. Leave unset
+         * while auth-service still signs with HS256.
+         */
+        private Instant acceptLegacyHs256Until;
+        private String jwksPath = "/api/auth/.well-known/jwks.json";
+        private Duration keyRefreshInterval = Duration.ofMinutes(5);
+        private Duration minKeyRefreshInterval = Duration.ofSeconds(30);
+        private Duration clockSkew = Duration.ofSeconds(30);
+    }
+
+    /**
+     * Cache for results returned by auth-service. Entries are keyed by a hash
+     * of the token and never outlive the token's own expiry.
+     */
+    @Data
+    public static class Cache {
+        private boolean enabled = true;
+        private long maxSize = 10_000;
+        private Duration ttl = Duration.ofMinutes(5);
+        private Duration negativeTtl = Duration.ofSeconds(10);
+    }
+
+    /**
+     * Denylist of revoked access tokens, kept in sync with auth-service. A
+     * revoked token is rejected even while its validation result is cached.
+     */
+    @Data
+    public static class Revocation {
+        private boolean enabled = true;
+        private int expectedEntries = 100_000;
+        private String snapshotPath = "/internal/token-revocations";
+        /**
+         * Key sent in X-Internal-Api-Key with snapshot requests, matching
+         * auth-service's internal.api-key.
+         */
+        private String apiKey;
+        private Duration resyncInterval = Duration.ofMinutes(1);
+    }
 }
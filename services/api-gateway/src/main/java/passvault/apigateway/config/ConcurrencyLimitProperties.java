@@ -0,0 +1,51 @@
+package passvault.apigateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adaptive concurrency limiting in front of the gateway routes.
+ *
+ * Requests first pass a gateway-wide limit, then the limit of their route;
+ * both are learned from observed latency. Priority classes only apply to the
+ * gateway-wide limit, which every route shares, so bulk traffic to one route
+ * is shed before critical traffic to another. Paths can be given a priority
+ * class as "[METHOD ]pattern", e.g.:
+ * gateway.concurrency-limit.critical-paths=/api/auth/login
+ * gateway.concurrency-limit.bulk-paths=GET /api/vault/entries
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+    private int initialLimit = 100;
+    private int minLimit = 10;
+    private int maxLimit = 1000;
+    /** Weight given to each new limit estimate. */
+    private double smoothing = 0.2;
+    /** How much latency may grow over the long-term average before the limit shrinks. */
+    private double rttTolerance = 1.5;
+    /** Factor applied to the limit when an upstream call fails or times out. */
+    private double backoffRatio = 0.9;
+    private Duration retryAfter = Duration.ofSeconds(1);
+    private List<String> criticalPaths = new ArrayList<>();
+    private List<String> bulkPaths = new ArrayList<>();
+    private Global global = new Global();
+
+    /**
+     * Bounds of the gateway-wide limit; the top-level bounds apply per route.
+     */
+    @Data
+    public static class Global {
+        private int initialLimit = 400;
+        private int minLimit = 40;
+        private int maxLimit = 4000;
+    }
+}
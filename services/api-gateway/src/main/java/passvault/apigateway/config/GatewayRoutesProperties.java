@@ -2,10 +2,14 @@ package passvault.apigateway.config;
 
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Configuration properties for gateway routes.
@@ -13,6 +17,11 @@ import java.util.Map;
  * Define routes in application.properties like:
  * gateway.services.my-service.url=http://localhost:8085
  * gateway.services.my-service.path=/api/myservice/**
+ *
+ * Each route gets its own upstream connection pool, tuned with
+ * gateway.services.my-service.client.* (see {@link Client}), and its own
+ * failure handling under gateway.services.my-service.resilience.*
+ * (see {@link Resilience}).
  */
 @Data
 @Component
@@ -25,5 +34,75 @@ public class GatewayRoutesProperties {
     public static class ServiceRoute {
         private String url;
         private String path;
+        private Client client = new Client();
+        private Resilience resilience = new Resilience();
+    }
+
+    /**
+     * Upstream HTTP client settings for one route.
+     */
+    @Data
+    public static class Client {
+        /**
+         * HTTP_1_1 uses a pooled keep-alive client. H2C multiplexes requests over
+         * cleartext HTTP/2 (negotiated by upgrade) and needs h2c on the upstream.
+         */
+        private Protocol protocol = Protocol.HTTP_1_1;
+        private int maxConnections = 200;
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration readTimeout = Duration.ofSeconds(30);
+        /** How long a request may wait for a free pooled connection. */
+        private Duration poolAcquireTimeout = Duration.ofSeconds(1);
+        /** Idle connections are kept this long when the upstream sends no Keep-Alive hint. */
+        private Duration keepAlive = Duration.ofSeconds(30);
+        private Duration maxConnectionLifetime = Duration.ofMinutes(10);
+    }
+
+    /**
+     * Failure handling for one route, applied to proxied requests and to the
+     * gateway's own calls to the service.
+     */
+    @Data
+    public static class Resilience {
+        /** Deadline for a call including retries and hedges; unset relies on the client read timeout. */
+        private Duration timeout;
+        /** Concurrent calls allowed to the service; 0 means unlimited. */
+        private int maxConcurrentCalls = 0;
+        private CircuitBreaker circuitBreaker = new CircuitBreaker();
+        private Retry retry = new Retry();
+    }
+
+    @Data
+    public static class CircuitBreaker {
+        private boolean enabled = true;
+        /** Percentage of failed calls (I/O errors and 5xx) that opens the breaker. */
+        private float failureRateThreshold = 50;
+        private int slidingWindowSize = 50;
+        private int minimumNumberOfCalls = 20;
+        private Duration waitInOpenState = Duration.ofSeconds(10);
+        private int permittedCallsInHalfOpenState = 5;
+    }
+
+    /**
+     * Retries and hedging, only for the listed idempotent methods. Extra
+     * attempts draw from a budget so retries cannot multiply load during an
+     * outage.
+     */
+    @Data
+    public static class Retry {
+        /** Total attempts including the first; 1 disables retries and hedging. */
+        private int maxAttempts = 1;
+        private Duration backoff = Duration.ofMillis(50);
+        /** When set, another attempt is started if no response arrived within this delay. */
+        private Duration hedgeDelay;
+        private Set<HttpMethod> methods = new HashSet<>(Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS));
+        /** Extra attempts allowed per original call, on top of min-retries-per-second. */
+        private double budgetRatio = 0.1;
+        private int minRetriesPerSecond = 10;
+    }
+
+    public enum Protocol {
+        HTTP_1_1,
+        H2C
     }
 }
@@ -0,0 +1,28 @@
+package passvault.apigateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Client-side load balancing for routes declared as lb://service-name.
+ * Instances come from a local snapshot of the Eureka registry; a request goes
+ * to the less busy of two random instances, and instances that keep failing
+ * are ejected for a while.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.load-balancer")
+public class LoadBalancerProperties {
+
+    /** Fallback refresh of the registry snapshot; it is also refreshed after every Eureka fetch. */
+    private Duration refreshInterval = Duration.ofSeconds(30);
+    /** Consecutive connection errors or 502/503/504 responses before an instance is ejected. */
+    private int consecutiveFailures = 5;
+    private Duration baseEjectionTime = Duration.ofSeconds(30);
+    private Duration maxEjectionTime = Duration.ofMinutes(5);
+    /** Upper bound on the share of a service's instances ejected at the same time. */
+    private int maxEjectionPercent = 50;
+}
@@ -1,14 +1,27 @@
 package passvault.apigateway.config;
 
+import org.springframework.cloud.gateway.server.mvc.common.MvcUtils;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.servlet.function.RequestPredicate;
 import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.ServerRequest;
 import org.springframework.web.servlet.function.ServerResponse;
+import passvault.apigateway.limit.ConcurrencyLimiter;
+import passvault.apigateway.metrics.GatewayMetrics;
+import passvault.apigateway.routing.GatewayPathMatcher;
+import passvault.apigateway.routing.GatewayRoute;
+import passvault.apigateway.upstream.UpstreamRejectedException;
+
+import java.time.Duration;
+import java.util.Map;
 
-import static org.springframework.cloud.gateway.server.mvc.filter.BeforeFilterFunctions.uri;
 import static org.springframework.cloud.gateway.server.mvc.handler.GatewayRouterFunctions.route;
 import static org.springframework.cloud.gateway.server.mvc.handler.HandlerFunctions.http;
-import static org.springframework.cloud.gateway.server.mvc.predicate.GatewayRequestPredicates.path;
 
 /**
  * Dynamic route configuration for the API Gateway.
@@ -17,42 +30,86 @@ import static org.springframework.cloud.gateway.server.mvc.predicate.GatewayRequ
  * To add a new service, simply add to application.properties:
  * gateway.services.my-service.url=http://localhost:8085
  * gateway.services.my-service.path=/api/myservice/**
+ *
+ * All services share one router function: the path is resolved once through
+ * {@link GatewayPathMatcher} and the matched route sets the route id and
+ * target URI before the request is proxied. Requests are admitted by the
+ * adaptive {@link ConcurrencyLimiter} and shed with 503 when it is full;
+ * admitted calls are timed as gateway.upstream.duration.
  */
 @Configuration
 public class RouteConfig {
 
-    private final GatewayRoutesProperties routesProperties;
+    private final GatewayPathMatcher pathMatcher;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final GatewayMetrics gatewayMetrics;
 
-    public RouteConfig(GatewayRoutesProperties routesProperties) {
-        this.routesProperties = routesProperties;
+    public RouteConfig(GatewayPathMatcher pathMatcher, ConcurrencyLimiter concurrencyLimiter,
+            GatewayMetrics gatewayMetrics) {
+        this.pathMatcher = pathMatcher;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.gatewayMetrics = gatewayMetrics;
     }
 
     @Bean
     public RouterFunction<ServerResponse> gatewayRoutes() {
-        RouterFunction<ServerResponse> combined = null;
-
-        for (var entry : routesProperties.getServices().entrySet()) {
-            String serviceName = entry.getKey();
-            String serviceUrl = entry.getValue().getUrl();
-            String servicePath = entry.getValue().getPath();
-
-            RouterFunction<ServerResponse> routeFunc = route(serviceName)
-                    .route(path(servicePath), http())
-                    .before(uri(serviceUrl))
-                    .build();
-
-            if (combined == null) {
-                combined = routeFunc;
-            } else {
-                combined = combined.and(routeFunc);
+        RequestPredicate matchesService = request -> {
+            GatewayRoute matched = pathMatcher.findRoute(request.path());
+            if (matched == null) {
+                return false;
             }
-        }
+            request.attributes().put(GatewayRoute.REQUEST_ATTRIBUTE, matched);
+            return true;
+        };
+
+        return route("services")
+                .route(matchesService, http())
+                .before(request -> {
+                    GatewayRoute matched = matchedRoute(request);
+                    MvcUtils.setRouteId(request, matched.id());
+                    MvcUtils.setRequestUrl(request, matched.uri());
+                    return request;
+                })
+                .filter((request, next) -> concurrencyLimiter.execute(matchedRoute(request).id(), request, next))
+                .filter((request, next) -> {
+                    GatewayRoute matched = matchedRoute(request);
+                    long start = System.nanoTime();
+                    int status = 0;
+                    try {
+                        ServerResponse response = next.handle(request);
+                        status = response.statusCode().value();
+                        return response;
+                    } finally {
+                        gatewayMetrics.recordUpstream(matched.id(), request.method().name(), status,
+                                System.nanoTime() - start);
+                    }
+                })
+                .onError(ResourceAccessException.class, (error, request) -> upstreamError(error))
+                .build();
+    }
 
-        // Return empty route if no services configured
-        if (combined == null) {
-            combined = route("empty").build();
+    private static GatewayRoute matchedRoute(ServerRequest request) {
+        return (GatewayRoute) request.attributes().get(GatewayRoute.REQUEST_ATTRIBUTE);
+    }
+
+    /**
+     * Maps failed upstream calls to gateway responses: policy rejections keep
+     * their status (503 or 504, with Retry-After when known), other I/O errors
+     * become 502.
+     */
+    private static ServerResponse upstreamError(Throwable error) {
+        UpstreamRejectedException rejected = UpstreamRejectedException.find(error);
+        if (rejected == null) {
+            return errorResponse(HttpStatus.BAD_GATEWAY, "Upstream service unavailable", null);
         }
+        return errorResponse(rejected.getStatus(), rejected.getMessage(), rejected.getRetryAfter());
+    }
 
-        return combined;
+    public static ServerResponse errorResponse(HttpStatus status, String message, Duration retryAfter) {
+        ServerResponse.BodyBuilder response = ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON);
+        if (retryAfter != null) {
+            response.header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())));
+        }
+        return response.body(Map.of("error", status.getReasonPhrase(), "message", message));
     }
 }
@@ -1,13 +1,19 @@
 package passvault.apigateway.config;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.server.mvc.config.GatewayMvcProperties;
+import org.springframework.cloud.gateway.server.mvc.handler.ProxyExchange;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestClient;
+import passvault.apigateway.upstream.RoutingProxyExchange;
+import passvault.apigateway.upstream.UpstreamHttpClients;
 
 @Configuration
 public class WebClientConfig {
 
+    private static final String AUTH_SERVICE_ROUTE = "auth-service";
+
     @Value("${gateway.services.auth-service.url:http://localhost:8081}")
     private String authServiceUrl;
 
@@ -16,10 +22,22 @@ public class WebClientConfig {
         return RestClient.builder();
     }
 
+    /**
+     * Replaces the gateway's default proxy exchange so routed requests use the
+     * per-route upstream clients.
+     */
+    @Bean
+    public ProxyExchange routingProxyExchange(UpstreamHttpClients upstreamHttpClients,
+            GatewayMvcProperties gatewayMvcProperties) {
+        return new RoutingProxyExchange(upstreamHttpClients, gatewayMvcProperties);
+    }
+
     @Bean
-    public RestClient authServiceClient(RestClient.Builder builder) {
-        return builder
+    public RestClient authServiceClient(RestClient.Builder builder, UpstreamHttpClients upstreamHttpClients) {
+        // Clone so the shared builder bean is not left pointing at auth-service.
+        return builder.clone()
                 .baseUrl(authServiceUrl)
+                .requestFactory(upstreamHttpClients.requestFactory(AUTH_SERVICE_ROUTE))
                 .build();
     }
 }
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Set;
 import java.util.UUID;
 
 @Data
@@ -14,5 +15,18 @@ public class TokenValidationResponse {
     private boolean valid;
     private String username;
     private UUID userId;
+    private Set<String> roles;
     private String message;
+    private String tokenId;
+    private UUID sessionId;
+    private Long issuedAtMillis;
+
+    public static TokenValidationResponse valid(String username, UUID userId, Set<String> roles,
+                                                String tokenId, UUID sessionId, Long issuedAtMillis) {
+        return new TokenValidationResponse(true, username, userId, roles, null, tokenId, sessionId, issuedAtMillis);
+    }
+
+    public static TokenValidationResponse invalid(String message) {
+        return new TokenValidationResponse(false, null, null, null, message, null, null, null);
+    }
 }
@@ -0,0 +1,27 @@
+package passvault.apigateway.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Broadcast to every token verifier. Either tokenId is set, revoking one
+ * token, sessionId is, revoking every token of one login session, or userId
+ * and issuedBefore are, revoking all of the user's tokens issued up to that
+ * instant.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenRevokedEvent implements Serializable {
+    private String tokenId;
+    private String sessionId;
+    private String userId;
+    private Instant issuedBefore;
+    private Instant expiresAt;
+}
@@ -9,21 +9,28 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
-import org.springframework.util.AntPathMatcher;
-import org.springframework.web.client.RestClient;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.filter.OncePerRequestFilter;
+import passvault.apigateway.auth.TokenValidationService;
 import passvault.apigateway.config.AuthFilterConfig;
 import passvault.apigateway.dto.TokenValidationResponse;
+import passvault.apigateway.metrics.GatewayMetrics;
+import passvault.apigateway.metrics.GatewayMetrics.AuthOutcome;
+import passvault.apigateway.routing.GatewayPathMatcher;
+import passvault.apigateway.routing.GatewayRoute;
+import passvault.apigateway.upstream.UpstreamRejectedException;
 
 import java.io.IOException;
 import java.util.*;
 
 /**
  * Authentication filter that intercepts all requests, validates JWT tokens
- * through the auth-service, and adds user information to request headers.
+ * (in-process or through the auth-service, see {@link TokenValidationService}),
+ * and adds user information to request headers. Path matching, token
+ * validation and the whole request are timed through {@link GatewayMetrics}.
  */
 @Slf4j
 @Component
@@ -33,28 +40,61 @@ public class AuthenticationFilter extends OncePerRequestFilter {
     private static final String AUTHORIZATION_HEADER = "Authorization";
     private static final String BEARER_PREFIX = "Bearer ";
 
-    private final RestClient authServiceClient;
+    private final TokenValidationService tokenValidationService;
     private final AuthFilterConfig authFilterConfig;
-    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final GatewayPathMatcher pathMatcher;
+    private final GatewayMetrics gatewayMetrics;
 
-    public AuthenticationFilter(RestClient authServiceClient, AuthFilterConfig authFilterConfig) {
-        this.authServiceClient = authServiceClient;
+    public AuthenticationFilter(TokenValidationService tokenValidationService, AuthFilterConfig authFilterConfig,
+            GatewayPathMatcher pathMatcher, GatewayMetrics gatewayMetrics) {
+        this.tokenValidationService = tokenValidationService;
         this.authFilterConfig = authFilterConfig;
+        this.pathMatcher = pathMatcher;
+        this.gatewayMetrics = gatewayMetrics;
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
             FilterChain filterChain) throws ServletException, IOException {
 
+        long start = System.nanoTime();
+        AuthOutcome outcome = AuthOutcome.REJECTED;
+        boolean completed = false;
+        try {
+            outcome = authenticate(request, response, filterChain);
+            completed = true;
+        } finally {
+            GatewayRoute route = (GatewayRoute) request.getAttribute(GatewayRoute.REQUEST_ATTRIBUTE);
+            if (route == null) {
+                // Rejected before routing; attribute it to the route it was aimed at.
+                route = pathMatcher.findRoute(request.getRequestURI());
+            }
+            // The status is not set yet when the chain throws; the container turns it into an error page.
+            gatewayMetrics.recordRequest(route != null ? route.id() : GatewayMetrics.NO_ROUTE, request.getMethod(),
+                    completed ? response.getStatus() : 0, outcome, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Authenticates the request and forwards it when allowed. Returns the auth
+     * outcome once the rest of the chain has completed.
+     */
+    private AuthOutcome authenticate(HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
         String requestPath = request.getRequestURI();
         String method = request.getMethod();
 
         log.debug("Processing request: {} {}", method, requestPath);
 
-        if (isOpenEndpoint(requestPath)) {
+        long matchStart = System.nanoTime();
+        boolean openEndpoint = isOpenEndpoint(requestPath);
+        gatewayMetrics.recordOpenEndpointMatch(System.nanoTime() - matchStart);
+
+        if (openEndpoint) {
             log.debug("Open endpoint, skipping authentication: {}", requestPath);
             filterChain.doFilter(request, response);
-            return;
+            return AuthOutcome.OPEN;
         }
 
         String authHeader = request.getHeader(AUTHORIZATION_HEADER);
@@ -62,44 +102,47 @@ public class AuthenticationFilter extends OncePerRequestFilter {
         if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
             log.warn("Missing or invalid Authorization header for path: {}", requestPath);
             sendUnauthorizedResponse(response, "Missing or invalid Authorization header");
-            return;
+            return AuthOutcome.REJECTED;
         }
 
+        String token = authHeader.substring(BEARER_PREFIX.length());
+        TokenValidationResponse validationResponse;
+        long validationStart = System.nanoTime();
         try {
-            TokenValidationResponse validationResponse = validateTokenWithAuthService(authHeader);
-
-            if (validationResponse == null || !validationResponse.isValid()) {
-                String message = validationResponse != null ? validationResponse.getMessage()
-                        : "Token validation failed";
-                log.warn("Token validation failed for path {}: {}", requestPath, message);
-                sendUnauthorizedResponse(response, message);
-                return;
+            validationResponse = tokenValidationService.validate(token);
+        } catch (RestClientException e) {
+            gatewayMetrics.recordTokenValidation(AuthOutcome.UNAVAILABLE, System.nanoTime() - validationStart);
+            log.error("Error communicating with auth-service: {}", e.getMessage());
+            UpstreamRejectedException rejected = UpstreamRejectedException.find(e);
+            if (rejected != null && rejected.getRetryAfter() != null) {
+                response.setHeader(HttpHeaders.RETRY_AFTER,
+                        String.valueOf(Math.max(1, rejected.getRetryAfter().toSeconds())));
             }
+            sendServiceUnavailableResponse(response, "Authentication service unavailable");
+            return AuthOutcome.UNAVAILABLE;
+        }
 
-            log.debug("Token validated successfully for user: {}", validationResponse.getUsername());
+        if (validationResponse == null || !validationResponse.isValid()) {
+            gatewayMetrics.recordTokenValidation(AuthOutcome.REJECTED, System.nanoTime() - validationStart);
+            String message = validationResponse != null ? validationResponse.getMessage()
+                    : "Token validation failed";
+            log.warn("Token validation failed for path {}: {}", requestPath, message);
+            sendUnauthorizedResponse(response, message);
+            return AuthOutcome.REJECTED;
+        }
+        gatewayMetrics.recordTokenValidation(AuthOutcome.AUTHENTICATED, System.nanoTime() - validationStart);
 
-            HttpServletRequest wrappedRequest = new HeaderMapRequestWrapper(request, validationResponse,
-                    authFilterConfig);
+        log.debug("Token validated successfully for user: {}", validationResponse.getUsername());
 
-            filterChain.doFilter(wrappedRequest, response);
+        HttpServletRequest wrappedRequest = new HeaderMapRequestWrapper(request, validationResponse,
+                authFilterConfig);
 
-        } catch (RestClientException e) {
-            log.error("Error communicating with auth-service: {}", e.getMessage());
-            sendServiceUnavailableResponse(response, "Authentication service unavailable");
-        }
+        filterChain.doFilter(wrappedRequest, response);
+        return AuthOutcome.AUTHENTICATED;
     }
 
     private boolean isOpenEndpoint(String requestPath) {
-        return authFilterConfig.getOpenEndpoints().stream()
-                .anyMatch(pattern -> pathMatcher.match(pattern, requestPath));
-    }
-
-    private TokenValidationResponse validateTokenWithAuthService(String authHeader) {
-        return authServiceClient.get()
-                .uri("/api/auth/validate")
-                .header(AUTHORIZATION_HEADER, authHeader)
-                .retrieve()
-                .body(TokenValidationResponse.class);
+        return pathMatcher.isOpenEndpoint(requestPath);
     }
 
     private void sendUnauthorizedResponse(HttpServletResponse response, String message) throws IOException {
@@ -0,0 +1,186 @@
+package passvault.apigateway.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.function.HandlerFunction;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+import passvault.apigateway.config.ConcurrencyLimitProperties;
+import passvault.apigateway.config.RouteConfig;
+import passvault.apigateway.routing.PathPatternTrie;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Adaptive concurrency limiter for routed requests. A request must fit in the
+ * share of the gateway-wide limit available to its {@link RequestPriority},
+ * then in its route's limit; otherwise it is shed immediately with 503
+ * instead of queueing on the upstream. Upstream 5xx responses and errors
+ * count as failures and shrink both limits.
+ * <p>
+ * Exports gateway.concurrency.limit and gateway.concurrency.in-flight for the
+ * gateway (route "all") and per route, and gateway.concurrency.rejected per
+ * route, priority and the limit that shed the request.
+ */
+@Slf4j
+@Component
+public class ConcurrencyLimiter {
+
+    private final ConcurrencyLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final PathPatternTrie<PriorityRule> priorityRules;
+    private final GradientConcurrencyLimit gatewayLimit;
+    private final Map<String, RouteLimit> routeLimits = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimiter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.priorityRules = compilePriorityRules(properties);
+        ConcurrencyLimitProperties.Global global = properties.getGlobal();
+        this.gatewayLimit = new GradientConcurrencyLimit(properties, global.getInitialLimit(),
+                global.getMinLimit(), global.getMaxLimit());
+        registerGauges(gatewayLimit, "all");
+    }
+
+    /**
+     * Runs the handler if the gateway has capacity for the request's priority
+     * and the route has capacity at all, otherwise answers 503 with
+     * Retry-After.
+     */
+    public ServerResponse execute(String routeId, ServerRequest request, HandlerFunction<ServerResponse> next)
+            throws Exception {
+        if (!properties.isEnabled()) {
+            return next.handle(request);
+        }
+
+        RouteLimit routeLimit = routeLimits.computeIfAbsent(routeId, this::createRouteLimit);
+        RequestPriority priority = classify(request.method(), request.path());
+        int gatewayInFlight = gatewayLimit.tryAcquire(priority);
+        if (gatewayInFlight < 0) {
+            routeLimit.shedByGateway.get(priority).increment();
+            log.debug("Shedding {} request to route {} at gateway limit {}", priority, routeId,
+                    gatewayLimit.getLimit());
+            return shed(routeId);
+        }
+        // Priorities are arbitrated by the gateway-wide limit; the route's own
+        // limit only protects its upstream, so every class may use all of it
+        int routeInFlight = routeLimit.limit.tryAcquire(RequestPriority.CRITICAL);
+        if (routeInFlight < 0) {
+            gatewayLimit.cancel();
+            routeLimit.shedByRoute.get(priority).increment();
+            log.debug("Shedding {} request to route {} at route limit {}", priority, routeId,
+                    routeLimit.limit.getLimit());
+            return shed(routeId);
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            ServerResponse response = next.handle(request);
+            failed = response.statusCode().is5xxServerError();
+            return response;
+        } finally {
+            long rtt = System.nanoTime() - start;
+            routeLimit.limit.release(rtt, routeInFlight, failed);
+            gatewayLimit.release(rtt, gatewayInFlight, failed);
+        }
+    }
+
+    private ServerResponse shed(String routeId) {
+        return RouteConfig.errorResponse(HttpStatus.SERVICE_UNAVAILABLE,
+                "Too many concurrent requests for " + routeId, properties.getRetryAfter());
+    }
+
+    RequestPriority classify(HttpMethod method, String path) {
+        PriorityRule rule = priorityRules.match(path, candidate -> candidate.get(method) != null);
+        return rule != null ? rule.get(method) : RequestPriority.NORMAL;
+    }
+
+    private RouteLimit createRouteLimit(String routeId) {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(properties, properties.getInitialLimit(),
+                properties.getMinLimit(), properties.getMaxLimit());
+        registerGauges(limit, routeId);
+        return new RouteLimit(limit, rejectedCounters(routeId, "gateway"), rejectedCounters(routeId, "route"));
+    }
+
+    private void registerGauges(GradientConcurrencyLimit limit, String route) {
+        Gauge.builder("gateway.concurrency.limit", limit, GradientConcurrencyLimit::getLimit)
+                .description("Current adaptive concurrency limit")
+                .tag("route", route)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.in-flight", limit, GradientConcurrencyLimit::getInFlight)
+                .description("Requests currently admitted by the concurrency limiter")
+                .tag("route", route)
+                .register(meterRegistry);
+    }
+
+    private Map<RequestPriority, Counter> rejectedCounters(String routeId, String limit) {
+        Map<RequestPriority, Counter> rejected = new EnumMap<>(RequestPriority.class);
+        for (RequestPriority priority : RequestPriority.values()) {
+            rejected.put(priority, Counter.builder("gateway.concurrency.rejected")
+                    .description("Requests shed by the concurrency limiter")
+                    .tag("route", routeId)
+                    .tag("priority", priority.tag())
+                    .tag("limit", limit)
+                    .register(meterRegistry));
+        }
+        return rejected;
+    }
+
+    private static PathPatternTrie<PriorityRule> compilePriorityRules(ConcurrencyLimitProperties properties) {
+        Map<String, PriorityRule> rules = new LinkedHashMap<>();
+        addRules(rules, properties.getBulkPaths(), RequestPriority.BULK);
+        addRules(rules, properties.getCriticalPaths(), RequestPriority.CRITICAL);
+
+        PathPatternTrie.Builder<PriorityRule> builder = PathPatternTrie.builder();
+        rules.forEach(builder::add);
+        return builder.build();
+    }
+
+    private static void addRules(Map<String, PriorityRule> rules, List<String> entries, RequestPriority priority) {
+        for (String entry : entries) {
+            String trimmed = entry.trim();
+            int space = trimmed.indexOf(' ');
+            HttpMethod method = space > 0 ? HttpMethod.valueOf(trimmed.substring(0, space)) : null;
+            String pattern = space > 0 ? trimmed.substring(space + 1).trim() : trimmed;
+            rules.computeIfAbsent(pattern, key -> new PriorityRule()).put(method, priority);
+        }
+    }
+
+    private record RouteLimit(GradientConcurrencyLimit limit, Map<RequestPriority, Counter> shedByGateway,
+                              Map<RequestPriority, Counter> shedByRoute) {
+    }
+
+    /**
+     * Priorities configured for one path pattern, by method. A null method
+     * applies to every method without its own entry.
+     */
+    private static final class PriorityRule {
+
+        private final Map<HttpMethod, RequestPriority> byMethod = new HashMap<>();
+        private RequestPriority anyMethod;
+
+        private void put(HttpMethod method, RequestPriority priority) {
+            if (method == null) {
+                anyMethod = priority;
+            } else {
+                byMethod.put(method, priority);
+            }
+        }
+
+        private RequestPriority get(HttpMethod method) {
+            RequestPriority priority = byMethod.get(method);
+            return priority != null ? priority : anyMethod;
+        }
+    }
+}
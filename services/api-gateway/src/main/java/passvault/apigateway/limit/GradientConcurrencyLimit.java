@@ -0,0 +1,106 @@
+package passvault.apigateway.limit;
+
+import passvault.apigateway.config.ConcurrencyLimitProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latency-driven concurrency limit, in the style of the gradient algorithm
+ * used by Netflix concurrency-limits.
+ * <p>
+ * A fast and a slow moving average of response time are tracked. While the
+ * fast average stays within the tolerated ratio of the slow one the limit
+ * grows by roughly its square root per update; when latency rises the limit
+ * shrinks in proportion. Failed calls shrink it multiplicatively.
+ */
+class GradientConcurrencyLimit {
+
+    private static final double SHORT_RTT_WEIGHT = 0.1;
+    private static final double LONG_RTT_WEIGHT = 2.0 / 601;
+
+    private final ConcurrencyLimitProperties settings;
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    private double estimatedLimit;
+    private double shortRtt;
+    private double longRtt;
+
+    GradientConcurrencyLimit(ConcurrencyLimitProperties settings, int initialLimit, int minLimit, int maxLimit) {
+        this.settings = settings;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Admits a request if the in-flight count is below the share of the limit
+     * available to its priority. Returns the in-flight count including this
+     * request, or -1 when it must be shed.
+     */
+    int tryAcquire(RequestPriority priority) {
+        int allowed = priority.allowedInFlight(limit);
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    void release(long rttNanos, int inFlightAtStart, boolean failed) {
+        inFlight.decrementAndGet();
+        update(rttNanos, inFlightAtStart, failed);
+    }
+
+    /**
+     * Gives back a slot for a request that never reached the upstream, e.g.
+     * one shed by a later limit, without feeding its latency to the estimate.
+     */
+    void cancel() {
+        inFlight.decrementAndGet();
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtStart, boolean failed) {
+        if (failed) {
+            setEstimate(estimatedLimit * settings.getBackoffRatio());
+            return;
+        }
+
+        shortRtt = shortRtt == 0 ? rttNanos : shortRtt + SHORT_RTT_WEIGHT * (rttNanos - shortRtt);
+        longRtt = longRtt == 0 ? rttNanos : longRtt + LONG_RTT_WEIGHT * (rttNanos - longRtt);
+        if (longRtt / shortRtt > 2) {
+            // Latency dropped well below the long-term average (e.g. after an
+            // incident); let the baseline catch up instead of over-growing.
+            longRtt *= 0.95;
+        }
+
+        if (inFlightAtStart < estimatedLimit / 2) {
+            // The route is not using its limit, so latency says nothing about it.
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, settings.getRttTolerance() * longRtt / shortRtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        setEstimate((1 - settings.getSmoothing()) * estimatedLimit + settings.getSmoothing() * newLimit);
+    }
+
+    private void setEstimate(double estimate) {
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimate));
+        limit = (int) estimatedLimit;
+    }
+}
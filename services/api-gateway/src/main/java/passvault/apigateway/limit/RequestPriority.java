@@ -0,0 +1,26 @@
+package passvault.apigateway.limit;
+
+/**
+ * Priority class of a request. Each class may use a share of the gateway-wide
+ * concurrency limit, so as the gateway approaches its limit bulk traffic is
+ * shed first and critical traffic last, whichever routes they go to.
+ */
+public enum RequestPriority {
+    CRITICAL(1.0),
+    NORMAL(0.85),
+    BULK(0.6);
+
+    private final double limitShare;
+
+    RequestPriority(double limitShare) {
+        this.limitShare = limitShare;
+    }
+
+    int allowedInFlight(int limit) {
+        return Math.max(1, (int) (limit * limitShare));
+    }
+
+    public String tag() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,109 @@
+package passvault.apigateway.loadbalancer;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import passvault.apigateway.config.GatewayRoutesProperties;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local snapshot of the service instances behind lb:// routes. The snapshot
+ * is rebuilt after each Eureka registry fetch (and on a fallback schedule), so
+ * the request path only reads an immutable list and never calls discovery.
+ */
+@Slf4j
+@Component
+public class ServiceInstanceRegistry {
+
+    static final String LB_SCHEME = "lb";
+
+    private final DiscoveryClient discoveryClient;
+    private final MeterRegistry meterRegistry;
+    private final Set<String> serviceIds = ConcurrentHashMap.newKeySet();
+    private final Map<String, List<UpstreamInstance>> snapshot = new ConcurrentHashMap<>();
+
+    public ServiceInstanceRegistry(DiscoveryClient discoveryClient, GatewayRoutesProperties routesProperties,
+            MeterRegistry meterRegistry) {
+        this.discoveryClient = discoveryClient;
+        this.meterRegistry = meterRegistry;
+        routesProperties.getServices().values().forEach(route -> {
+            URI uri = URI.create(route.getUrl());
+            if (LB_SCHEME.equals(uri.getScheme())) {
+                track(uri.getHost());
+            }
+        });
+    }
+
+    /**
+     * Instances of the service from the last snapshot. A service seen for the
+     * first time is loaded synchronously once.
+     */
+    public List<UpstreamInstance> getInstances(String serviceId) {
+        List<UpstreamInstance> instances = snapshot.get(serviceId);
+        if (instances == null) {
+            track(serviceId);
+            instances = refresh(serviceId);
+        }
+        return instances;
+    }
+
+    @EventListener({ApplicationReadyEvent.class, HeartbeatEvent.class})
+    public void onRegistryUpdate() {
+        refreshAll();
+    }
+
+    @Scheduled(fixedDelayString = "${gateway.load-balancer.refresh-interval:PT30S}")
+    public void refreshAll() {
+        serviceIds.forEach(this::refresh);
+    }
+
+    private List<UpstreamInstance> refresh(String serviceId) {
+        List<ServiceInstance> discovered;
+        try {
+            discovered = discoveryClient.getInstances(serviceId);
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh instances of {}: {}", serviceId, e.getMessage());
+            return snapshot.getOrDefault(serviceId, List.of());
+        }
+
+        Map<String, UpstreamInstance> previous = new HashMap<>();
+        snapshot.getOrDefault(serviceId, List.of()).forEach(instance -> previous.put(instance.getInstanceId(), instance));
+
+        List<UpstreamInstance> instances = new ArrayList<>(discovered.size());
+        for (ServiceInstance serviceInstance : discovered) {
+            UpstreamInstance instance = new UpstreamInstance(serviceInstance);
+            UpstreamInstance existing = previous.get(instance.getInstanceId());
+            instances.add(existing != null && existing.getUri().equals(instance.getUri()) ? existing : instance);
+        }
+        List<UpstreamInstance> updated = List.copyOf(instances);
+        List<UpstreamInstance> old = snapshot.put(serviceId, updated);
+        if (old == null || old.size() != updated.size()) {
+            log.info("Service {} has {} instance(s)", serviceId, updated.size());
+        }
+        return updated;
+    }
+
+    private void track(String serviceId) {
+        if (serviceIds.add(serviceId)) {
+            Gauge.builder("gateway.lb.instances", this, registry -> registry.snapshot
+                            .getOrDefault(serviceId, List.of()).size())
+                    .description("Instances known for a load-balanced service")
+                    .tag("service", serviceId)
+                    .register(meterRegistry);
+        }
+    }
+}
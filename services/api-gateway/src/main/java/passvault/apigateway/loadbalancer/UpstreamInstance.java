@@ -0,0 +1,69 @@
+package passvault.apigateway.loadbalancer;
+
+import lombok.Getter;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A service instance with the live statistics used for balancing and
+ * ejection. Kept across registry refreshes so counters are not reset.
+ */
+public class UpstreamInstance {
+
+    @Getter
+    private final String instanceId;
+    @Getter
+    private final URI uri;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long ejectedUntilNanos;
+    private volatile int ejections;
+
+    UpstreamInstance(ServiceInstance instance) {
+        this.instanceId = instance.getInstanceId() != null ? instance.getInstanceId()
+                : instance.getHost() + ":" + instance.getPort();
+        this.uri = instance.getUri();
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public void start() {
+        outstanding.incrementAndGet();
+    }
+
+    public void finish() {
+        outstanding.decrementAndGet();
+    }
+
+    boolean isEjected(long now) {
+        return ejectedUntilNanos - now > 0;
+    }
+
+    void onSuccess() {
+        consecutiveFailures.set(0);
+        if (ejections != 0) {
+            ejections = 0;
+        }
+    }
+
+    /**
+     * Returns the new count of consecutive failures.
+     */
+    int onFailure() {
+        return consecutiveFailures.incrementAndGet();
+    }
+
+    /**
+     * Ejects the instance, each successive ejection lasting longer up to the
+     * given maximum.
+     */
+    synchronized void eject(long now, long baseNanos, long maxNanos) {
+        ejections++;
+        ejectedUntilNanos = now + Math.min(maxNanos, baseNanos * ejections);
+        consecutiveFailures.set(0);
+    }
+}
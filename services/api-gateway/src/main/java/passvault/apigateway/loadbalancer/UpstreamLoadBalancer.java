@@ -0,0 +1,98 @@
+package passvault.apigateway.loadbalancer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import passvault.apigateway.config.LoadBalancerProperties;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks an instance with power-of-two-choices over outstanding requests and
+ * passively ejects instances after consecutive failures. At most
+ * max-ejection-percent of a service's instances are ejected at once, and if
+ * every instance is ejected the full list is used rather than failing.
+ */
+@Slf4j
+@Component
+public class UpstreamLoadBalancer {
+
+    private final ServiceInstanceRegistry registry;
+    private final LoadBalancerProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public UpstreamLoadBalancer(ServiceInstanceRegistry registry, LoadBalancerProperties properties,
+            MeterRegistry meterRegistry) {
+        this.registry = registry;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public static boolean isLoadBalanced(String scheme) {
+        return ServiceInstanceRegistry.LB_SCHEME.equals(scheme);
+    }
+
+    /**
+     * Returns an instance of the service, or null if none is registered.
+     */
+    public UpstreamInstance choose(String serviceId) {
+        List<UpstreamInstance> instances = registry.getInstances(serviceId);
+        int size = instances.size();
+        if (size == 0) {
+            return null;
+        }
+        if (size == 1) {
+            return instances.get(0);
+        }
+
+        long now = System.nanoTime();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        UpstreamInstance first = null;
+        UpstreamInstance second = null;
+        // Sample a few times so ejected instances are skipped without building a filtered list.
+        for (int i = 0; i < 2 * size && second == null; i++) {
+            UpstreamInstance candidate = instances.get(random.nextInt(size));
+            if (candidate.isEjected(now) || candidate == first) {
+                continue;
+            }
+            if (first == null) {
+                first = candidate;
+            } else {
+                second = candidate;
+            }
+        }
+        if (first == null) {
+            return instances.get(random.nextInt(size));
+        }
+        if (second == null) {
+            return first;
+        }
+        return second.getOutstanding() < first.getOutstanding() ? second : first;
+    }
+
+    public void onSuccess(UpstreamInstance instance) {
+        instance.onSuccess();
+    }
+
+    public void onFailure(String serviceId, UpstreamInstance instance) {
+        if (instance.onFailure() < properties.getConsecutiveFailures()) {
+            return;
+        }
+        List<UpstreamInstance> instances = registry.getInstances(serviceId);
+        long now = System.nanoTime();
+        long ejected = instances.stream().filter(candidate -> candidate.isEjected(now)).count();
+        if ((ejected + 1) * 100 > (long) instances.size() * properties.getMaxEjectionPercent()) {
+            return;
+        }
+        instance.eject(now, properties.getBaseEjectionTime().toNanos(), properties.getMaxEjectionTime().toNanos());
+        log.warn("Ejected instance {} of {} after {} consecutive failures", instance.getInstanceId(), serviceId,
+                properties.getConsecutiveFailures());
+        Counter.builder("gateway.lb.ejections")
+                .description("Instances ejected after consecutive failures")
+                .tag("service", serviceId)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,117 @@
+package passvault.apigateway.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency timers for the gateway request path, published with percentile
+ * histograms so p95/p99 can be aggregated across instances:
+ * <ul>
+ *     <li>gateway.request.duration - whole request, by route, method, status class (or error) and auth outcome</li>
+ *     <li>gateway.auth.open-endpoint.match - open-endpoint lookup</li>
+ *     <li>gateway.auth.validation.duration - token validation, by outcome</li>
+ *     <li>gateway.upstream.duration - proxied call until response headers, by route, method and status class</li>
+ * </ul>
+ */
+@Component
+public class GatewayMetrics {
+
+    public static final String NO_ROUTE = "none";
+
+    private static final String[] STATUS_CLASSES = {"1xx", "2xx", "3xx", "4xx", "5xx"};
+    private static final Set<String> METHODS = Set.of("GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS",
+            "TRACE");
+
+    private final Meter.MeterProvider<Timer> requestTimer;
+    private final Meter.MeterProvider<Timer> validationTimer;
+    private final Meter.MeterProvider<Timer> upstreamTimer;
+    private final Timer openEndpointMatchTimer;
+
+    public GatewayMetrics(MeterRegistry meterRegistry) {
+        this.requestTimer = Timer.builder("gateway.request.duration")
+                .description("Time spent by the gateway on a request, including authentication and the upstream call")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .withRegistry(meterRegistry);
+        this.validationTimer = Timer.builder("gateway.auth.validation.duration")
+                .description("Time spent validating bearer tokens")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(10_000))
+                .maximumExpectedValue(Duration.ofSeconds(5))
+                .withRegistry(meterRegistry);
+        this.upstreamTimer = Timer.builder("gateway.upstream.duration")
+                .description("Time until the upstream service returned response headers")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .withRegistry(meterRegistry);
+        this.openEndpointMatchTimer = Timer.builder("gateway.auth.open-endpoint.match")
+                .description("Time spent matching the request path against open endpoints")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100))
+                .maximumExpectedValue(Duration.ofMillis(1))
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a whole request; a status of 0 means the filter chain threw.
+     */
+    public void recordRequest(String routeId, String method, int status, AuthOutcome authOutcome, long nanos) {
+        requestTimer.withTags("route", routeId, "method", methodTag(method), "status", statusTag(status),
+                "auth", authOutcome.tag()).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordOpenEndpointMatch(long nanos) {
+        openEndpointMatchTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordTokenValidation(AuthOutcome outcome, long nanos) {
+        validationTimer.withTags("outcome", outcome.tag()).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records a proxied call; a status of 0 means it failed without a response.
+     */
+    public void recordUpstream(String routeId, String method, int status, long nanos) {
+        upstreamTimer.withTags("route", routeId, "method", methodTag(method), "status", statusTag(status))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Methods come straight from the client, so anything non-standard is
+     * folded into one tag value to keep the number of series bounded.
+     */
+    private static String methodTag(String method) {
+        return METHODS.contains(method) ? method : "OTHER";
+    }
+
+    private static String statusTag(int status) {
+        if (status == 0) {
+            return "error";
+        }
+        int index = status / 100 - 1;
+        return index >= 0 && index < STATUS_CLASSES.length ? STATUS_CLASSES[index] : "unknown";
+    }
+
+    public enum AuthOutcome {
+        /** Open endpoint, no token required. */
+        OPEN,
+        /** Token present and valid. */
+        AUTHENTICATED,
+        /** Missing, malformed or invalid token. */
+        REJECTED,
+        /** Token could not be validated because auth-service was unavailable. */
+        UNAVAILABLE;
+
+        public String tag() {
+            return name().toLowerCase();
+        }
+    }
+}
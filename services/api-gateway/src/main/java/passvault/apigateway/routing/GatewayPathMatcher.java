@@ -0,0 +1,68 @@
+package passvault.apigateway.routing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import passvault.apigateway.config.AuthFilterConfig;
+import passvault.apigateway.config.GatewayRoutesProperties;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Single matcher for the request hot path. Open endpoints and service routes
+ * are compiled at startup into one {@link PathPatternTrie}, so both the
+ * authentication filter and the router resolve a path in one walk instead of
+ * testing every pattern in turn.
+ */
+@Slf4j
+@Component
+public class GatewayPathMatcher {
+
+    private static final Predicate<Entry> OPEN = entry -> entry.open;
+    private static final Predicate<Entry> ROUTED = entry -> entry.route != null;
+
+    private final PathPatternTrie<Entry> trie;
+
+    public GatewayPathMatcher(AuthFilterConfig authFilterConfig, GatewayRoutesProperties routesProperties) {
+        Map<String, Entry> entries = new LinkedHashMap<>();
+
+        for (String pattern : authFilterConfig.getOpenEndpoints()) {
+            entries.computeIfAbsent(pattern, key -> new Entry()).open = true;
+        }
+        for (var service : routesProperties.getServices().entrySet()) {
+            String path = service.getValue().getPath();
+            Entry entry = entries.computeIfAbsent(path, key -> new Entry());
+            if (entry.route != null) {
+                throw new IllegalStateException("Services " + entry.route.id() + " and " + service.getKey()
+                        + " are both mapped to " + path);
+            }
+            entry.route = new GatewayRoute(service.getKey(), path, URI.create(service.getValue().getUrl()));
+        }
+
+        PathPatternTrie.Builder<Entry> builder = PathPatternTrie.builder();
+        entries.forEach(builder::add);
+        this.trie = builder.build();
+
+        log.info("Compiled {} gateway path patterns", entries.size());
+    }
+
+    public boolean isOpenEndpoint(String path) {
+        return trie.match(path, OPEN) != null;
+    }
+
+    /**
+     * Returns the most specific route for the path, or null if no service
+     * handles it.
+     */
+    public GatewayRoute findRoute(String path) {
+        Entry entry = trie.match(path, ROUTED);
+        return entry != null ? entry.route : null;
+    }
+
+    private static final class Entry {
+        private boolean open;
+        private GatewayRoute route;
+    }
+}
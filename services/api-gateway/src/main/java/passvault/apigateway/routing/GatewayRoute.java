@@ -0,0 +1,13 @@
+package passvault.apigateway.routing;
+
+import java.net.URI;
+
+/**
+ * A service route resolved by {@link GatewayPathMatcher}: the route id used for
+ * metrics and logging and the base URI requests are forwarded to.
+ */
+public record GatewayRoute(String id, String path, URI uri) {
+
+    /** Request attribute holding the route a request was matched to. */
+    public static final String REQUEST_ATTRIBUTE = GatewayRoute.class.getName();
+}
@@ -0,0 +1,221 @@
+package passvault.apigateway.routing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Path-segment trie compiled once from Ant-style patterns. Supports literal
+ * segments, "*" and "{name}" (exactly one segment) and "**" (zero or more
+ * segments), which covers every pattern used for open endpoints and routes.
+ * <p>
+ * Lookups walk the request path in place, hashing each segment without
+ * creating substrings, so matching does not allocate. When several patterns
+ * match, literal segments win over "*", which wins over "**".
+ *
+ * @param <T> value attached to each pattern
+ */
+public final class PathPatternTrie<T> {
+
+    private final Node<T> root;
+
+    private PathPatternTrie(Node<T> root) {
+        this.root = root;
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Returns the value of the most specific pattern matching the path whose
+     * value satisfies the filter, or null when none does.
+     */
+    public T match(String path, Predicate<? super T> filter) {
+        boolean trailingSlash = path.length() > 1 && path.charAt(path.length() - 1) == '/';
+        Node<T> node = match(root, path, 0, trailingSlash, filter);
+        return node != null ? node.value : null;
+    }
+
+    public T match(String path) {
+        return match(path, value -> true);
+    }
+
+    private static <T> Node<T> match(Node<T> node, String path, int pos, boolean trailingSlash,
+            Predicate<? super T> filter) {
+        int start = skipSeparators(path, pos);
+        if (start == path.length()) {
+            if (node.value != null && (!trailingSlash || node.doubleWildcard) && filter.test(node.value)) {
+                return node;
+            }
+            return node.doubleWildcardChild != null
+                    ? match(node.doubleWildcardChild, path, start, trailingSlash, filter)
+                    : null;
+        }
+
+        int end = path.indexOf('/', start);
+        if (end < 0) {
+            end = path.length();
+        }
+
+        Node<T> literal = node.literalChild(path, start, end);
+        if (literal != null) {
+            Node<T> found = match(literal, path, end, trailingSlash, filter);
+            if (found != null) {
+                return found;
+            }
+        }
+        if (node.wildcardChild != null) {
+            Node<T> found = match(node.wildcardChild, path, end, trailingSlash, filter);
+            if (found != null) {
+                return found;
+            }
+        }
+        Node<T> doubleWildcard = node.doubleWildcardChild;
+        if (doubleWildcard != null) {
+            // "**" consumes zero or more segments, then the rest of the pattern continues.
+            int next = start;
+            while (true) {
+                Node<T> found = match(doubleWildcard, path, next, trailingSlash, filter);
+                if (found != null) {
+                    return found;
+                }
+                if (next == path.length()) {
+                    return null;
+                }
+                next = path.indexOf('/', skipSeparators(path, next));
+                if (next < 0) {
+                    next = path.length();
+                }
+            }
+        }
+        return null;
+    }
+
+    private static int skipSeparators(String path, int pos) {
+        while (pos < path.length() && path.charAt(pos) == '/') {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int hash(String path, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + path.charAt(i);
+        }
+        // Segments such as "service1", "service2" hash to neighbouring values;
+        // spread them so linear probing does not build long clusters.
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Node<T> {
+
+        private T value;
+        private boolean doubleWildcard;
+        private Node<T> wildcardChild;
+        private Node<T> doubleWildcardChild;
+
+        private Map<String, Node<T>> pendingLiterals = new LinkedHashMap<>();
+        private String[] literalKeys;
+        private Node<T>[] literalChildren;
+        private int mask;
+
+        private Node<T> child(String segment) {
+            if ("**".equals(segment)) {
+                if (doubleWildcardChild == null) {
+                    doubleWildcardChild = new Node<>();
+                    doubleWildcardChild.doubleWildcard = true;
+                }
+                return doubleWildcardChild;
+            }
+            if ("*".equals(segment) || (segment.startsWith("{") && segment.endsWith("}"))) {
+                if (wildcardChild == null) {
+                    wildcardChild = new Node<>();
+                }
+                return wildcardChild;
+            }
+            if (segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0 || segment.indexOf('{') >= 0) {
+                throw new IllegalArgumentException("Unsupported pattern segment: " + segment);
+            }
+            return pendingLiterals.computeIfAbsent(segment, key -> new Node<>());
+        }
+
+        /**
+         * Freezes literal children into an open-addressing table keyed by the
+         * segment hash, so lookups can hash the path in place.
+         */
+        @SuppressWarnings("unchecked")
+        private void compile() {
+            int capacity = Integer.highestOneBit(Math.max(pendingLiterals.size(), 1) * 2 + 1) << 1;
+            literalKeys = new String[capacity];
+            literalChildren = new Node[capacity];
+            mask = capacity - 1;
+            for (Map.Entry<String, Node<T>> entry : pendingLiterals.entrySet()) {
+                String key = entry.getKey();
+                int slot = hash(key, 0, key.length()) & mask;
+                while (literalKeys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                literalKeys[slot] = key;
+                literalChildren[slot] = entry.getValue();
+                entry.getValue().compile();
+            }
+            pendingLiterals = null;
+            if (wildcardChild != null) {
+                wildcardChild.compile();
+            }
+            if (doubleWildcardChild != null) {
+                doubleWildcardChild.compile();
+            }
+        }
+
+        private Node<T> literalChild(String path, int start, int end) {
+            int length = end - start;
+            int slot = hash(path, start, end) & mask;
+            String key;
+            while ((key = literalKeys[slot]) != null) {
+                if (key.length() == length && path.regionMatches(start, key, 0, length)) {
+                    return literalChildren[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+    }
+
+    public static final class Builder<T> {
+
+        private final Node<T> root = new Node<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a pattern. Values must not be null; adding the same pattern twice
+         * is rejected so conflicting configuration fails at startup.
+         */
+        public Builder<T> add(String pattern, T value) {
+            if (value == null) {
+                throw new IllegalArgumentException("Value for pattern " + pattern + " must not be null");
+            }
+            Node<T> node = root;
+            for (String segment : pattern.split("/")) {
+                if (!segment.isEmpty()) {
+                    node = node.child(segment);
+                }
+            }
+            if (node.value != null) {
+                throw new IllegalArgumentException("Duplicate path pattern: " + pattern);
+            }
+            node.value = value;
+            return this;
+        }
+
+        public PathPatternTrie<T> build() {
+            root.compile();
+            return new PathPatternTrie<>(root);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package passvault.apigateway.upstream;
+
+import org.apache.hc.core5.concurrent.Cancellable;
+
+/**
+ * Handle on an upstream attempt running on an attempt thread, so the caller
+ * can abort it once it stops waiting. Aborting cancels the HTTP request
+ * registered by the client (closing its connection) and interrupts the
+ * thread, which also cancels JDK HTTP/2 exchanges.
+ */
+final class InFlightAttempt {
+
+    private static final ThreadLocal<InFlightAttempt> CURRENT = new ThreadLocal<>();
+
+    private Thread thread;
+    private Cancellable request;
+    private boolean aborted;
+
+    /**
+     * Called by the client on the attempt thread when it creates the
+     * underlying request; a no-op outside an attempt.
+     */
+    static void register(Cancellable request) {
+        InFlightAttempt attempt = CURRENT.get();
+        if (attempt == null) {
+            return;
+        }
+        boolean abortNow;
+        synchronized (attempt) {
+            attempt.request = request;
+            abortNow = attempt.aborted;
+        }
+        if (abortNow) {
+            request.cancel();
+        }
+    }
+
+    /**
+     * Runs the attempt on the current thread unless it was aborted before
+     * it got a thread.
+     */
+    void run(Runnable task) {
+        synchronized (this) {
+            if (aborted) {
+                return;
+            }
+            thread = Thread.currentThread();
+        }
+        CURRENT.set(this);
+        try {
+            task.run();
+        } finally {
+            CURRENT.remove();
+            synchronized (this) {
+                thread = null;
+                if (aborted) {
+                    // Do not leak the abort into the thread's next task
+                    Thread.interrupted();
+                }
+            }
+        }
+    }
+
+    synchronized boolean isAborted() {
+        return aborted;
+    }
+
+    void abort() {
+        Cancellable toCancel;
+        synchronized (this) {
+            if (aborted) {
+                return;
+            }
+            aborted = true;
+            toCancel = request;
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+        if (toCancel != null) {
+            toCancel.cancel();
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package passvault.apigateway.upstream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.util.UriComponentsBuilder;
+import passvault.apigateway.loadbalancer.UpstreamInstance;
+import passvault.apigateway.loadbalancer.UpstreamLoadBalancer;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Resolves lb://service-name URIs to a concrete instance chosen by the
+ * {@link UpstreamLoadBalancer}, and reports each call's outcome back to it.
+ * Other URIs go straight to the underlying factory.
+ */
+class LoadBalancedRequestFactory implements ClientHttpRequestFactory {
+
+    private final ClientHttpRequestFactory delegate;
+    private final UpstreamLoadBalancer loadBalancer;
+
+    LoadBalancedRequestFactory(ClientHttpRequestFactory delegate, UpstreamLoadBalancer loadBalancer) {
+        this.delegate = delegate;
+        this.loadBalancer = loadBalancer;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        if (!UpstreamLoadBalancer.isLoadBalanced(uri.getScheme())) {
+            return delegate.createRequest(uri, httpMethod);
+        }
+        String serviceId = uri.getHost();
+        UpstreamInstance instance = loadBalancer.choose(serviceId);
+        if (instance == null) {
+            throw new IOException("No instances available for " + serviceId);
+        }
+        URI target = UriComponentsBuilder.fromUri(uri)
+                .scheme(instance.getUri().getScheme())
+                .host(instance.getUri().getHost())
+                .port(instance.getUri().getPort())
+                .build(true)
+                .toUri();
+        return new LoadBalancedRequest(delegate.createRequest(target, httpMethod), serviceId, instance);
+    }
+
+    private final class LoadBalancedRequest implements ClientHttpRequest, StreamingHttpOutputMessage {
+
+        private final ClientHttpRequest request;
+        private final String serviceId;
+        private final UpstreamInstance instance;
+
+        private LoadBalancedRequest(ClientHttpRequest request, String serviceId, UpstreamInstance instance) {
+            this.request = request;
+            this.serviceId = serviceId;
+            this.instance = instance;
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return request.getMethod();
+        }
+
+        @Override
+        public URI getURI() {
+            return request.getURI();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return request.getHeaders();
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return request.getAttributes();
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return request.getBody();
+        }
+
+        @Override
+        public void setBody(Body body) {
+            if (request instanceof StreamingHttpOutputMessage streaming) {
+                streaming.setBody(body);
+            } else {
+                try {
+                    body.writeTo(request.getBody());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        /**
+         * The instance keeps counting the request as outstanding until its
+         * response body has been consumed, not just until headers arrive.
+         */
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            instance.start();
+            boolean handedOver = false;
+            try {
+                ClientHttpResponse response = request.execute();
+                int status = response.getStatusCode().value();
+                if (status == 502 || status == 503 || status == 504) {
+                    loadBalancer.onFailure(serviceId, instance);
+                } else {
+                    loadBalancer.onSuccess(instance);
+                }
+                handedOver = true;
+                return new InstanceResponse(response, instance);
+            } catch (IOException e) {
+                loadBalancer.onFailure(serviceId, instance);
+                throw e;
+            } finally {
+                if (!handedOver) {
+                    instance.finish();
+                }
+            }
+        }
+    }
+
+    /**
+     * Releases the instance's outstanding slot once the body has been read to
+     * the end, reading it failed, or the body or the response was closed,
+     * whichever comes first. The proxy copies the body after the handler has
+     * returned and does not always close the response, so EOF counts too.
+     */
+    private static final class InstanceResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse response;
+        private final UpstreamInstance instance;
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private InputStream body;
+
+        private InstanceResponse(ClientHttpResponse response, UpstreamInstance instance) {
+            this.response = response;
+            this.instance = instance;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new BodyStream(response.getBody());
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            try {
+                response.close();
+            } finally {
+                finish();
+            }
+        }
+
+        private void finish() {
+            if (finished.compareAndSet(false, true)) {
+                instance.finish();
+            }
+        }
+
+        private final class BodyStream extends FilterInputStream {
+
+            private BodyStream(InputStream in) {
+                super(in);
+            }
+
+            @Override
+            public int read() throws IOException {
+                try {
+                    int b = super.read();
+                    if (b == -1) {
+                        finish();
+                    }
+                    return b;
+                } catch (IOException e) {
+                    finish();
+                    throw e;
+                }
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                try {
+                    int n = super.read(b, off, len);
+                    if (n == -1) {
+                        finish();
+                    }
+                    return n;
+                } catch (IOException e) {
+                    finish();
+                    throw e;
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    finish();
+                }
+            }
+        }
+    }
+}
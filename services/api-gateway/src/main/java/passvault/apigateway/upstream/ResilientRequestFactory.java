@@ -0,0 +1,120 @@
+package passvault.apigateway.upstream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.FastByteArrayOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Request factory that runs every request through a {@link RoutePolicy}.
+ * Each attempt creates a fresh request on the underlying factory. Bodies are
+ * streamed straight through when the attempt runs on the calling thread.
+ * Bodies that cannot be replayed are buffered on the calling thread when the
+ * policy may send more than one attempt or runs attempts on its own threads,
+ * because the servlet request they read from may be recycled once the caller
+ * has given up on the call.
+ */
+class ResilientRequestFactory implements ClientHttpRequestFactory {
+
+    private final ClientHttpRequestFactory delegate;
+    private final RoutePolicy policy;
+
+    ResilientRequestFactory(ClientHttpRequestFactory delegate, RoutePolicy policy) {
+        this.delegate = delegate;
+        this.policy = policy;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+        return new ResilientRequest(uri, httpMethod);
+    }
+
+    private final class ResilientRequest implements ClientHttpRequest, StreamingHttpOutputMessage {
+
+        private final URI uri;
+        private final HttpMethod method;
+        private final HttpHeaders headers = new HttpHeaders();
+        private final Map<String, Object> attributes = new HashMap<>();
+        private Body body;
+        private FastByteArrayOutputStream bufferedBody;
+
+        private ResilientRequest(URI uri, HttpMethod method) {
+            this.uri = uri;
+            this.method = method;
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return method;
+        }
+
+        @Override
+        public URI getURI() {
+            return uri;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public void setBody(Body body) {
+            this.body = body;
+        }
+
+        @Override
+        public OutputStream getBody() {
+            if (bufferedBody == null) {
+                bufferedBody = new FastByteArrayOutputStream();
+            }
+            return bufferedBody;
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            Body attemptBody = body;
+            if (bufferedBody != null) {
+                byte[] bytes = bufferedBody.toByteArrayUnsafe();
+                attemptBody = out -> out.write(bytes);
+            } else if (body != null && !body.repeatable()
+                    && (policy.allowsMultipleAttempts(method) || policy.runsAttemptsOffThread())) {
+                // Read the client's body here, once, rather than from an attempt thread.
+                FastByteArrayOutputStream buffer = new FastByteArrayOutputStream();
+                body.writeTo(buffer);
+                byte[] bytes = buffer.toByteArrayUnsafe();
+                attemptBody = out -> out.write(bytes);
+            }
+            Body finalBody = attemptBody;
+            return policy.execute(method, () -> executeAttempt(finalBody));
+        }
+
+        private ClientHttpResponse executeAttempt(Body attemptBody) throws IOException {
+            ClientHttpRequest request = delegate.createRequest(uri, method);
+            request.getHeaders().putAll(headers);
+            request.getAttributes().putAll(attributes);
+            if (attemptBody != null) {
+                if (request instanceof StreamingHttpOutputMessage streaming) {
+                    streaming.setBody(attemptBody);
+                } else {
+                    attemptBody.writeTo(request.getBody());
+                }
+            }
+            return request.execute();
+        }
+    }
+}
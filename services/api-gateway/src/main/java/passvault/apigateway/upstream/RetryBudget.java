@@ -0,0 +1,38 @@
+package passvault.apigateway.upstream;
+
+/**
+ * Token bucket limiting retries and hedges. Each original call deposits
+ * {@code ratio} tokens and the bucket also refills at a minimum rate, so a
+ * failing upstream sees at most roughly (1 + ratio) times normal traffic.
+ */
+class RetryBudget {
+
+    private final double ratio;
+    private final double minPerSecond;
+    private final double capacity;
+
+    private double balance;
+    private long lastRefillNanos = System.nanoTime();
+
+    RetryBudget(double ratio, int minRetriesPerSecond) {
+        this.ratio = ratio;
+        this.minPerSecond = minRetriesPerSecond;
+        this.capacity = Math.max(minRetriesPerSecond, 1) * 10.0;
+        this.balance = minRetriesPerSecond;
+    }
+
+    synchronized void deposit() {
+        balance = Math.min(capacity, balance + ratio);
+    }
+
+    synchronized boolean tryWithdraw() {
+        long now = System.nanoTime();
+        balance = Math.min(capacity, balance + minPerSecond * (now - lastRefillNanos) / 1_000_000_000.0);
+        lastRefillNanos = now;
+        if (balance < 1) {
+            return false;
+        }
+        balance -= 1;
+        return true;
+    }
+}
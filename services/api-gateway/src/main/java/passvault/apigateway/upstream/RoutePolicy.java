@@ -0,0 +1,333 @@
+package passvault.apigateway.upstream;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpResponse;
+import passvault.apigateway.config.GatewayRoutesProperties.Resilience;
+import passvault.apigateway.upstream.UpstreamRejectedException.Reason;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies one route's resilience settings to an upstream call: bulkhead,
+ * circuit breaker, overall deadline, retries with backoff and hedged attempts.
+ * <p>
+ * Attempts run on the given executor when a deadline or hedging is configured
+ * so the caller can stop waiting; otherwise they run on the calling thread.
+ * Once the call is decided, attempts still in flight (hedge losers, attempts
+ * past the deadline) are aborted, and late responses are closed so their
+ * connections return to the pool. The bulkhead permit is held until the last
+ * started attempt has finished, so it bounds real upstream concurrency.
+ */
+class RoutePolicy {
+
+    private static final long NONE = Long.MAX_VALUE;
+    private static final Duration BULKHEAD_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final String routeId;
+    private final Resilience settings;
+    private final Bulkhead bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final RetryBudget retryBudget;
+    private final Executor executor;
+    private final boolean async;
+    private final Counter retries;
+    private final Counter hedges;
+    private final Map<Reason, Counter> rejections;
+
+    /**
+     * @param asyncExecutor runs attempts when {@link #runsAttemptsOffThread(Resilience)}; unused otherwise
+     */
+    RoutePolicy(String routeId, Resilience settings, Bulkhead bulkhead, CircuitBreaker circuitBreaker,
+            Executor asyncExecutor, Counter retries, Counter hedges, Map<Reason, Counter> rejections) {
+        this.routeId = routeId;
+        this.settings = settings;
+        this.bulkhead = bulkhead;
+        this.circuitBreaker = circuitBreaker;
+        this.retryBudget = new RetryBudget(settings.getRetry().getBudgetRatio(),
+                settings.getRetry().getMinRetriesPerSecond());
+        this.async = runsAttemptsOffThread(settings);
+        this.executor = async ? asyncExecutor : Runnable::run;
+        this.retries = retries;
+        this.hedges = hedges;
+        this.rejections = rejections;
+    }
+
+    interface Attempt {
+        ClientHttpResponse execute() throws IOException;
+    }
+
+    static boolean runsAttemptsOffThread(Resilience settings) {
+        return settings.getTimeout() != null || settings.getRetry().getHedgeDelay() != null;
+    }
+
+    boolean runsAttemptsOffThread() {
+        return async;
+    }
+
+    boolean allowsMultipleAttempts(HttpMethod method) {
+        return settings.getRetry().getMaxAttempts() > 1 && settings.getRetry().getMethods().contains(method);
+    }
+
+    ClientHttpResponse execute(HttpMethod method, Attempt attempt) throws IOException {
+        if (bulkhead != null && !bulkhead.tryAcquirePermission()) {
+            throw reject(Reason.BULKHEAD_FULL, BULKHEAD_RETRY_AFTER);
+        }
+        return run(method, new Call(attempt, bulkhead != null ? bulkhead::onComplete : () -> { }));
+    }
+
+    private ClientHttpResponse run(HttpMethod method, Call call) throws IOException {
+        var retry = settings.getRetry();
+        boolean retryable = allowsMultipleAttempts(method);
+        int maxAttempts = retryable ? retry.getMaxAttempts() : 1;
+        long hedgeDelay = retryable && retry.getHedgeDelay() != null ? retry.getHedgeDelay().toNanos() : NONE;
+        if (retryable) {
+            retryBudget.deposit();
+        }
+
+        long now = System.nanoTime();
+        long deadline = settings.getTimeout() != null ? now + settings.getTimeout().toNanos() : NONE;
+        long nextStart = hedgeDelay != NONE ? now + hedgeDelay : NONE;
+        boolean nextIsRetry = false;
+
+        Outcome last = null;
+        ClientHttpResponse result = null;
+        try {
+            if (!call.start()) {
+                throw reject(Reason.BULKHEAD_FULL, BULKHEAD_RETRY_AFTER);
+            }
+            while (true) {
+                Outcome outcome = call.await(Math.min(remaining(deadline), remaining(nextStart)));
+                now = System.nanoTime();
+
+                if (outcome == null) {
+                    if (deadline != NONE && deadline - now <= 0) {
+                        call.timedOut = true;
+                        throw reject(Reason.TIMEOUT, null);
+                    }
+                    boolean startedAnother = false;
+                    if (call.started < maxAttempts && retryBudget.tryWithdraw()) {
+                        startedAnother = call.start();
+                        if (startedAnother) {
+                            (nextIsRetry ? retries : hedges).increment();
+                        } else {
+                            // No attempt thread left: make do with the attempts already running
+                            maxAttempts = call.started;
+                        }
+                    }
+                    if (!startedAnother && call.finished == call.started) {
+                        result = last.response();
+                        return last.get();
+                    }
+                    nextIsRetry = false;
+                    nextStart = hedgeDelay != NONE && call.started < maxAttempts ? now + hedgeDelay : NONE;
+                    continue;
+                }
+
+                call.finished++;
+                if (outcome.response() != null && !isRetryableStatus(outcome.status())) {
+                    result = outcome.response();
+                    return result;
+                }
+                if (last != null) {
+                    last.discard();
+                }
+                last = outcome;
+
+                boolean canRetry = retryable && call.started < maxAttempts
+                        && !(outcome.failure() instanceof UpstreamRejectedException);
+                if (canRetry) {
+                    if (!nextIsRetry) {
+                        nextStart = Math.min(nextStart, now + retry.getBackoff().toNanos());
+                        nextIsRetry = true;
+                    }
+                } else if (call.finished == call.started) {
+                    result = last.response();
+                    return last.get();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for route " + routeId);
+        } finally {
+            call.decide();
+            if (last != null && last.response() != result) {
+                last.discard();
+            }
+        }
+    }
+
+    private Outcome runAttempt(Attempt attempt, InFlightAttempt inFlight, Call call) {
+        if (circuitBreaker != null && !circuitBreaker.tryAcquirePermission()) {
+            return Outcome.failed(reject(Reason.CIRCUIT_OPEN, settings.getCircuitBreaker().getWaitInOpenState()));
+        }
+        long start = System.nanoTime();
+        try {
+            ClientHttpResponse response = attempt.execute();
+            int status = response.getStatusCode().value();
+            if (circuitBreaker != null) {
+                long elapsed = System.nanoTime() - start;
+                if (status >= 500) {
+                    circuitBreaker.onError(elapsed, TimeUnit.NANOSECONDS, new IOException("HTTP " + status));
+                } else {
+                    circuitBreaker.onSuccess(elapsed, TimeUnit.NANOSECONDS);
+                }
+            }
+            return new Outcome(response, status, null);
+        } catch (IOException | RuntimeException e) {
+            if (circuitBreaker != null) {
+                if (inFlight.isAborted() && !call.timedOut) {
+                    // A hedge that lost the race says nothing about the upstream's health
+                    circuitBreaker.releasePermission();
+                } else {
+                    circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+                }
+            }
+            return Outcome.failed(e instanceof IOException io ? io : new IOException(e.getMessage(), e));
+        }
+    }
+
+    private UpstreamRejectedException reject(Reason reason, Duration retryAfter) {
+        rejections.get(reason).increment();
+        return new UpstreamRejectedException(routeId, reason, retryAfter);
+    }
+
+    private static boolean isRetryableStatus(int status) {
+        return status == 502 || status == 503 || status == 504;
+    }
+
+    private static long remaining(long at) {
+        return at == NONE ? NONE : Math.max(0, at - System.nanoTime());
+    }
+
+    private record Outcome(ClientHttpResponse response, int status, IOException failure) {
+
+        static Outcome failed(IOException failure) {
+            return new Outcome(null, 0, failure);
+        }
+
+        ClientHttpResponse get() throws IOException {
+            if (failure != null) {
+                throw failure;
+            }
+            return response;
+        }
+
+        void discard() {
+            if (response != null) {
+                response.close();
+            }
+        }
+    }
+
+    /**
+     * Attempts of one logical call. Outcomes arriving after the call has been
+     * decided are discarded instead of queued, attempts still running when it
+     * is decided are aborted, and the route's permit is released once the
+     * call is decided and no attempt is running any more.
+     */
+    private final class Call {
+
+        private final Attempt attempt;
+        private final Runnable release;
+        private final BlockingQueue<Outcome> outcomes = new LinkedBlockingQueue<>();
+        private final List<InFlightAttempt> running = new ArrayList<>();
+        private volatile boolean timedOut;
+        private boolean decided;
+        private boolean released;
+        private int started;
+        private int finished;
+
+        private Call(Attempt attempt, Runnable release) {
+            this.attempt = attempt;
+            this.release = release;
+        }
+
+        /**
+         * @return false when the executor has no thread left for the attempt
+         */
+        private boolean start() {
+            InFlightAttempt inFlight = new InFlightAttempt();
+            synchronized (this) {
+                running.add(inFlight);
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        inFlight.run(() -> complete(inFlight, runAttempt(attempt, inFlight, this)));
+                    } finally {
+                        ended(inFlight);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                ended(inFlight);
+                return false;
+            }
+            started++;
+            return true;
+        }
+
+        private Outcome await(long timeoutNanos) throws InterruptedException {
+            return timeoutNanos == NONE ? outcomes.take() : outcomes.poll(timeoutNanos, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Hands the outcome to the caller. The attempt stops counting as
+         * running here rather than when its thread is done, so deciding the
+         * call cannot abort the connection the caller is about to read from.
+         */
+        private void complete(InFlightAttempt inFlight, Outcome outcome) {
+            synchronized (this) {
+                running.remove(inFlight);
+                if (!decided) {
+                    outcomes.add(outcome);
+                    return;
+                }
+            }
+            outcome.discard();
+        }
+
+        private void ended(InFlightAttempt inFlight) {
+            synchronized (this) {
+                running.remove(inFlight);
+            }
+            releaseIfIdle();
+        }
+
+        private void decide() {
+            List<InFlightAttempt> toAbort;
+            synchronized (this) {
+                decided = true;
+                toAbort = List.copyOf(running);
+            }
+            toAbort.forEach(InFlightAttempt::abort);
+            Outcome outcome;
+            while ((outcome = outcomes.poll()) != null) {
+                outcome.discard();
+            }
+            releaseIfIdle();
+        }
+
+        private void releaseIfIdle() {
+            synchronized (this) {
+                if (!decided || released || !running.isEmpty()) {
+                    return;
+                }
+                released = true;
+            }
+            release.run();
+        }
+    }
+}
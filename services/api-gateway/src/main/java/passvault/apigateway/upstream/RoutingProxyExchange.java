@@ -0,0 +1,42 @@
+package passvault.apigateway.upstream;
+
+import org.springframework.cloud.gateway.server.mvc.common.MvcUtils;
+import org.springframework.cloud.gateway.server.mvc.config.GatewayMvcProperties;
+import org.springframework.cloud.gateway.server.mvc.handler.ProxyExchange;
+import org.springframework.cloud.gateway.server.mvc.handler.RestClientProxyExchange;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Proxy exchange that forwards each request through the upstream client of the
+ * route it matched, so every service gets its own pool, timeouts and protocol.
+ */
+public class RoutingProxyExchange implements ProxyExchange {
+
+    private final UpstreamHttpClients upstreamHttpClients;
+    private final GatewayMvcProperties gatewayMvcProperties;
+    private final Map<String, ProxyExchange> exchanges = new ConcurrentHashMap<>();
+
+    public RoutingProxyExchange(UpstreamHttpClients upstreamHttpClients,
+            GatewayMvcProperties gatewayMvcProperties) {
+        this.upstreamHttpClients = upstreamHttpClients;
+        this.gatewayMvcProperties = gatewayMvcProperties;
+    }
+
+    @Override
+    public ServerResponse exchange(Request request) {
+        String routeId = MvcUtils.getAttribute(request.getServerRequest(), MvcUtils.GATEWAY_ROUTE_ID_ATTR);
+        String key = routeId != null ? routeId : UpstreamHttpClients.DEFAULT_ROUTE;
+        return exchanges.computeIfAbsent(key, this::createExchange).exchange(request);
+    }
+
+    private ProxyExchange createExchange(String routeId) {
+        RestClient restClient = RestClient.builder()
+                .requestFactory(upstreamHttpClients.requestFactory(routeId))
+                .build();
+        return new RestClientProxyExchange(restClient, gatewayMvcProperties);
+    }
+}
@@ -0,0 +1,192 @@
+package passvault.apigateway.upstream;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import passvault.apigateway.config.GatewayRoutesProperties;
+import passvault.apigateway.config.GatewayRoutesProperties.Client;
+import passvault.apigateway.config.GatewayRoutesProperties.Protocol;
+import passvault.apigateway.loadbalancer.UpstreamLoadBalancer;
+
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Owns one upstream HTTP client per route, shared by the proxy and by the
+ * gateway's own calls (token validation, key fetches). HTTP/1.1 routes use a
+ * bounded keep-alive pool; H2C routes multiplex over a JDK HTTP/2 client.
+ * lb://service-name URIs are resolved per request by the
+ * {@link UpstreamLoadBalancer}, and configured routes are wrapped in their
+ * {@link UpstreamResilience} policy.
+ * <p>
+ * Pool usage is exported as gateway.upstream.pool.* tagged by route.
+ */
+@Slf4j
+@Component
+public class UpstreamHttpClients implements DisposableBean {
+
+    static final String DEFAULT_ROUTE = "default";
+
+    private final Map<String, ClientHttpRequestFactory> requestFactories = new HashMap<>();
+    private final Map<String, PoolingHttpClientConnectionManager> pools = new HashMap<>();
+    private final Map<String, Client> settings = new HashMap<>();
+    private final List<AutoCloseable> closeables = new ArrayList<>();
+    private final UpstreamLoadBalancer loadBalancer;
+
+    public UpstreamHttpClients(GatewayRoutesProperties routesProperties, UpstreamResilience upstreamResilience,
+            UpstreamLoadBalancer loadBalancer, MeterRegistry meterRegistry) {
+        this.loadBalancer = loadBalancer;
+        routesProperties.getServices().forEach((routeId, route) -> {
+            register(routeId, route.getClient(), meterRegistry);
+            requestFactories.put(routeId, upstreamResilience.decorate(routeId, route.getResilience(),
+                    route.getClient().getMaxConnections(), requestFactories.get(routeId)));
+        });
+        register(DEFAULT_ROUTE, new Client(), meterRegistry);
+    }
+
+    /**
+     * Request factory for the given route, or the default client for requests
+     * that did not match a configured route.
+     */
+    public ClientHttpRequestFactory requestFactory(String routeId) {
+        ClientHttpRequestFactory factory = routeId != null ? requestFactories.get(routeId) : null;
+        return factory != null ? factory : requestFactories.get(DEFAULT_ROUTE);
+    }
+
+    /**
+     * Closes expired connections and connections idle for longer than the
+     * route's keep-alive, so upstream restarts or idle timeouts do not leave
+     * half-closed sockets in the pool.
+     */
+    @Scheduled(fixedDelayString = "${gateway.upstream.idle-eviction-interval:PT5S}")
+    public void evictIdleConnections() {
+        pools.forEach((routeId, pool) -> {
+            pool.closeExpired();
+            pool.closeIdle(TimeValue.of(settings.get(routeId).getKeepAlive()));
+        });
+    }
+
+    @Override
+    public void destroy() {
+        for (AutoCloseable closeable : closeables) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                log.debug("Failed to close upstream client: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void register(String routeId, Client client, MeterRegistry meterRegistry) {
+        settings.put(routeId, client);
+        ClientHttpRequestFactory factory = client.getProtocol() == Protocol.H2C
+                ? http2Factory(client)
+                : pooledFactory(routeId, client, meterRegistry);
+        requestFactories.put(routeId, new LoadBalancedRequestFactory(factory, loadBalancer));
+        log.info("Upstream client for route {}: {}, max {} connections", routeId, client.getProtocol(),
+                client.getMaxConnections());
+    }
+
+    private ClientHttpRequestFactory pooledFactory(String routeId, Client client, MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager pool = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(client.getMaxConnections())
+                .setMaxConnPerRoute(client.getMaxConnections())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(client.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(client.getReadTimeout()))
+                        .setTimeToLive(TimeValue.of(client.getMaxConnectionLifetime()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+        pools.put(routeId, pool);
+        bindPoolMetrics(routeId, pool, meterRegistry);
+
+        Timer leaseWait = Timer.builder("gateway.upstream.pool.wait")
+                .description("Time spent waiting to lease a pooled upstream connection")
+                .tag("route", routeId)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(new TimedConnectionManager(pool, leaseWait))
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(client.getPoolAcquireTimeout()))
+                        .setResponseTimeout(Timeout.of(client.getReadTimeout()))
+                        .setConnectionKeepAlive(TimeValue.of(client.getKeepAlive()))
+                        .build())
+                // The gateway relays responses as-is: no client-side redirects,
+                // cookies shared between users or silent retries.
+                .disableRedirectHandling()
+                .disableCookieManagement()
+                .disableAutomaticRetries()
+                .build();
+        closeables.add(httpClient);
+        return new HttpComponentsClientHttpRequestFactory(httpClient) {
+            @Override
+            protected void postProcessHttpRequest(ClassicHttpRequest request) {
+                // Lets the route policy abort the request once it stops waiting
+                if (request instanceof Cancellable cancellable) {
+                    InFlightAttempt.register(cancellable);
+                }
+            }
+        };
+    }
+
+    private ClientHttpRequestFactory http2Factory(Client client) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(client.getConnectTimeout())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout(client.getReadTimeout());
+        return factory;
+    }
+
+    private static void bindPoolMetrics(String routeId, PoolingHttpClientConnectionManager pool,
+            MeterRegistry meterRegistry) {
+        poolGauge("gateway.upstream.pool.connections", "Pooled upstream connections by state", routeId, "leased",
+                pool, PoolStats::getLeased, meterRegistry);
+        poolGauge("gateway.upstream.pool.connections", "Pooled upstream connections by state", routeId,
+                "available", pool, PoolStats::getAvailable, meterRegistry);
+        poolGauge("gateway.upstream.pool.pending", "Requests waiting for a pooled upstream connection", routeId,
+                null, pool, PoolStats::getPending, meterRegistry);
+        poolGauge("gateway.upstream.pool.max", "Maximum pooled upstream connections", routeId, null,
+                pool, PoolStats::getMax, meterRegistry);
+    }
+
+    private static void poolGauge(String name, String description, String routeId, String state,
+            PoolingHttpClientConnectionManager pool, ToDoubleFunction<PoolStats> value,
+            MeterRegistry meterRegistry) {
+        Gauge.Builder<PoolingHttpClientConnectionManager> builder = Gauge
+                .builder(name, pool, p -> value.applyAsDouble(p.getTotalStats()))
+                .description(description)
+                .tag("route", routeId);
+        if (state != null) {
+            builder.tag("state", state);
+        }
+        builder.register(meterRegistry);
+    }
+}
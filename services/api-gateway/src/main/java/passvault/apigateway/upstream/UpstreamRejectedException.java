@@ -0,0 +1,61 @@
+package passvault.apigateway.upstream;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Thrown when the gateway refuses or abandons an upstream call because of the
+ * route's resilience policy rather than an error from the service itself.
+ */
+@Getter
+public class UpstreamRejectedException extends IOException {
+
+    private final String routeId;
+    private final Reason reason;
+    private final Duration retryAfter;
+
+    public UpstreamRejectedException(String routeId, Reason reason, Duration retryAfter) {
+        super(reason.description + " for route " + routeId);
+        this.routeId = routeId;
+        this.reason = reason;
+        this.retryAfter = retryAfter;
+    }
+
+    public HttpStatus getStatus() {
+        return reason.status;
+    }
+
+    /**
+     * Finds a rejection in the cause chain, since clients wrap it in their own
+     * I/O exception types.
+     */
+    public static UpstreamRejectedException find(Throwable throwable) {
+        for (Throwable t = throwable; t != null; t = t.getCause()) {
+            if (t instanceof UpstreamRejectedException rejected) {
+                return rejected;
+            }
+        }
+        return null;
+    }
+
+    public enum Reason {
+        BULKHEAD_FULL("Too many concurrent calls", HttpStatus.SERVICE_UNAVAILABLE),
+        CIRCUIT_OPEN("Circuit breaker is open", HttpStatus.SERVICE_UNAVAILABLE),
+        TIMEOUT("Upstream call timed out", HttpStatus.GATEWAY_TIMEOUT);
+
+        private final String description;
+        private final HttpStatus status;
+
+        Reason(String description, HttpStatus status) {
+            this.description = description;
+            this.status = status;
+        }
+
+        public String tag() {
+            return name().toLowerCase();
+        }
+    }
+}
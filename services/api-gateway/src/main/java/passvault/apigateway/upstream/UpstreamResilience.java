@@ -0,0 +1,139 @@
+package passvault.apigateway.upstream;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import passvault.apigateway.config.GatewayRoutesProperties;
+import passvault.apigateway.config.GatewayRoutesProperties.Resilience;
+import passvault.apigateway.upstream.UpstreamRejectedException.Reason;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the per-route {@link RoutePolicy} wrapped around each upstream
+ * client. Breaker state, bulkhead usage, state transitions, rejections and
+ * extra attempts are exported per route.
+ */
+@Slf4j
+@Component
+public class UpstreamResilience implements DisposableBean {
+
+    private final MeterRegistry meterRegistry;
+    private final CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+    private final BulkheadRegistry bulkheadRegistry = BulkheadRegistry.ofDefaults();
+    private final List<ExecutorService> attemptExecutors = new ArrayList<>();
+
+    public UpstreamResilience(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry).bindTo(meterRegistry);
+    }
+
+    /**
+     * Wraps a route's request factory so every call, proxied or made by the
+     * gateway itself, goes through the route's policy.
+     *
+     * @param maxConnections the route's connection limit, which bounds the
+     *                       attempt threads of a route without a bulkhead
+     */
+    public ClientHttpRequestFactory decorate(String routeId, Resilience settings, int maxConnections,
+            ClientHttpRequestFactory factory) {
+        Bulkhead bulkhead = settings.getMaxConcurrentCalls() > 0
+                ? bulkheadRegistry.bulkhead(routeId, BulkheadConfig.custom()
+                        .maxConcurrentCalls(settings.getMaxConcurrentCalls())
+                        .maxWaitDuration(Duration.ZERO)
+                        .build())
+                : null;
+        CircuitBreaker circuitBreaker = settings.getCircuitBreaker().isEnabled()
+                ? createCircuitBreaker(routeId, settings.getCircuitBreaker())
+                : null;
+
+        Map<Reason, Counter> rejections = new EnumMap<>(Reason.class);
+        for (Reason reason : Reason.values()) {
+            rejections.put(reason, Counter.builder("gateway.resilience.rejections")
+                    .description("Upstream calls refused or abandoned by the route policy")
+                    .tag("route", routeId)
+                    .tag("reason", reason.tag())
+                    .register(meterRegistry));
+        }
+
+        ExecutorService attemptExecutor = RoutePolicy.runsAttemptsOffThread(settings)
+                ? createAttemptExecutor(routeId, settings, maxConnections)
+                : null;
+        RoutePolicy policy = new RoutePolicy(routeId, settings, bulkhead, circuitBreaker, attemptExecutor,
+                attemptCounter(routeId, "retry"), attemptCounter(routeId, "hedge"), rejections);
+        return new ResilientRequestFactory(factory, policy);
+    }
+
+    @Override
+    public void destroy() {
+        attemptExecutors.forEach(ExecutorService::shutdownNow);
+    }
+
+    /**
+     * One thread per attempt the route can have in flight: every admitted
+     * call may run up to max-attempts attempts at once. The pool never
+     * queues; a call that finds no free thread is rejected as if the
+     * bulkhead were full.
+     */
+    private ExecutorService createAttemptExecutor(String routeId, Resilience settings, int maxConnections) {
+        int calls = settings.getMaxConcurrentCalls() > 0 ? settings.getMaxConcurrentCalls() : maxConnections;
+        int threads = calls * Math.max(1, settings.getRetry().getMaxAttempts());
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("upstream-attempt-" + routeId + "-");
+        threadFactory.setDaemon(true);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        attemptExecutors.add(executor);
+        return executor;
+    }
+
+    private CircuitBreaker createCircuitBreaker(String routeId, GatewayRoutesProperties.CircuitBreaker settings) {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(routeId, CircuitBreakerConfig.custom()
+                .failureRateThreshold(settings.getFailureRateThreshold())
+                .slidingWindowSize(settings.getSlidingWindowSize())
+                .minimumNumberOfCalls(settings.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(settings.getWaitInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(settings.getPermittedCallsInHalfOpenState())
+                .build());
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            log.warn("Circuit breaker for route {} changed {}", routeId, event.getStateTransition());
+            Counter.builder("gateway.resilience.breaker.transitions")
+                    .description("Circuit breaker state transitions")
+                    .tag("route", routeId)
+                    .tag("from", event.getStateTransition().getFromState().name().toLowerCase())
+                    .tag("to", event.getStateTransition().getToState().name().toLowerCase())
+                    .register(meterRegistry)
+                    .increment();
+        });
+        return circuitBreaker;
+    }
+
+    private Counter attemptCounter(String routeId, String type) {
+        return Counter.builder("gateway.resilience.extra-attempts")
+                .description("Retries and hedged attempts sent upstream")
+                .tag("route", routeId)
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+}
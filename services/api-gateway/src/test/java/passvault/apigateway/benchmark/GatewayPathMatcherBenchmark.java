@@ -0,0 +1,110 @@
+package passvault.apigateway.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.server.PathContainer;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import passvault.apigateway.routing.PathPatternTrie;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the compiled {@link PathPatternTrie} with the matchers it replaced:
+ * the AntPathMatcher scan used for open endpoints and the PathPattern scan
+ * performed by one router function per service.
+ * <p>
+ * Run with: mvn -Pjmh test-compile exec:exec -Djmh.args="GatewayPathMatcherBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GatewayPathMatcherBenchmark {
+
+    @Param({"5", "50", "500"})
+    private int patternCount;
+
+    private List<String> patterns;
+    private List<PathPattern> pathPatterns;
+    private AntPathMatcher antPathMatcher;
+    private PathPatternTrie<String> trie;
+    private String[] paths;
+    private PathContainer[] pathContainers;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        patterns = new ArrayList<>();
+        for (int i = 0; i < patternCount; i++) {
+            // Mix of the shapes used in configuration: exact endpoints and service prefixes.
+            patterns.add(i % 2 == 0 ? "/api/service" + i + "/**" : "/api/service" + i + "/login");
+        }
+
+        antPathMatcher = new AntPathMatcher();
+        PathPatternParser parser = new PathPatternParser();
+        pathPatterns = patterns.stream().map(parser::parse).toList();
+
+        PathPatternTrie.Builder<String> builder = PathPatternTrie.builder();
+        patterns.forEach(pattern -> builder.add(pattern, pattern));
+        trie = builder.build();
+
+        // Hits near the start, middle and end of the list plus a miss.
+        paths = new String[] {
+                "/api/service0/entries/42",
+                "/api/service" + (patternCount / 2 | 1) + "/login",
+                "/api/service" + ((patternCount - 1) & ~1) + "/entries",
+                "/api/unknown/path"
+        };
+        pathContainers = new PathContainer[paths.length];
+        for (int i = 0; i < paths.length; i++) {
+            pathContainers[i] = PathContainer.parsePath(paths[i]);
+        }
+    }
+
+    private int nextIndex() {
+        int index = next;
+        next = (index + 1) & 3;
+        return index;
+    }
+
+    @Benchmark
+    public void antPathMatcherScan(Blackhole blackhole) {
+        String path = paths[nextIndex()];
+        blackhole.consume(patterns.stream().anyMatch(pattern -> antPathMatcher.match(pattern, path)));
+    }
+
+    @Benchmark
+    public void pathPatternScan(Blackhole blackhole) {
+        PathContainer path = pathContainers[nextIndex()];
+        PathPattern matched = null;
+        for (PathPattern pattern : pathPatterns) {
+            if (pattern.matches(path)) {
+                matched = pattern;
+                break;
+            }
+        }
+        blackhole.consume(matched);
+    }
+
+    @Benchmark
+    public void trie(Blackhole blackhole) {
+        blackhole.consume(trie.match(paths[nextIndex()]));
+    }
+}
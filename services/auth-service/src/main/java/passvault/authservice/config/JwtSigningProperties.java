@@ -0,0 +1,61 @@
+package passvault.authservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "jwt.signing")
+public class JwtSigningProperties {
+
+    /**
+     * Algorithm used for new access tokens. HS256 signs with jwt.secret; ES256
+     * and EdDSA sign with the rotating key ring, whose public keys are served
+     * at /api/auth/.well-known/jwks.json.
+     */
+    private Algorithm algorithm = Algorithm.ES256;
+
+    /**
+     * With ES256 or EdDSA, tokens without a kid (signed with jwt.secret before
+     * the switch) are still accepted until this instant. Unset rejects them
+     * right away; set it past the access token lifetime when migrating.
+     */
+    private Instant acceptLegacyHs256Until;
+
+    /**
+     * How long a key signs new tokens before its successor takes over.
+     */
+    private Duration rotationInterval = Duration.ofDays(7);
+
+    /**
+     * How long before activation a successor key is published. Keep it above
+     * jwks-max-age and the verifiers' refresh interval so they know the key
+     * before the first token signed with it arrives.
+     */
+    private Duration publishAhead = Duration.ofMinutes(30);
+
+    /**
+     * How long a retired key stays published. Must cover the access token
+     * lifetime so tokens signed just before rotation keep verifying.
+     */
+    private Duration verificationOverlap = Duration.ofHours(1);
+
+    private Duration refreshInterval = Duration.ofMinutes(1);
+    private Duration jwksMaxAge = Duration.ofMinutes(5);
+
+    /**
+     * Base64 encoded secret used to encrypt private keys at rest. Defaults to
+     * jwt.secret.
+     */
+    private String keyEncryptionSecret;
+
+    public enum Algorithm {
+        HS256,
+        ES256,
+        EdDSA
+    }
+}
@@ -0,0 +1,32 @@
+package passvault.authservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "login.throttle")
+public class LoginThrottleProperties {
+
+    private boolean enabled = true;
+    private Duration window = Duration.ofMinutes(1);
+
+    /**
+     * Failed or in-progress login attempts allowed per username and window.
+     */
+    private int maxAttemptsPerUsername = 5;
+
+    /**
+     * Failed or in-progress login attempts allowed per client IP and window.
+     */
+    private int maxAttemptsPerIp = 30;
+
+    /**
+     * Upper bound on tracked usernames and IPs each; the least recently used
+     * keys are dropped first, idle keys after two windows.
+     */
+    private long maxTrackedKeys = 100_000;
+}
@@ -0,0 +1,31 @@
+package passvault.authservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "outbox")
+public class OutboxProperties {
+
+    /**
+     * How often the relay looks for due events when no commit has woken it up.
+     */
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    /**
+     * Events published per transaction; their confirms are awaited together.
+     */
+    private int batchSize = 100;
+    private Duration confirmTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Delay before retrying a nacked event or a broker that cannot be
+     * reached, doubled on each further failure up to max-backoff.
+     */
+    private Duration initialBackoff = Duration.ofSeconds(1);
+    private Duration maxBackoff = Duration.ofMinutes(5);
+}
@@ -0,0 +1,54 @@
+package passvault.authservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "password.hashing")
+public class PasswordHashingProperties {
+
+    /**
+     * Algorithm for new hashes. Existing hashes of either algorithm keep
+     * matching and are re-hashed on the next successful login when the
+     * algorithm or its parameters change.
+     */
+    private Algorithm algorithm = Algorithm.BCRYPT;
+    private int bcryptStrength = 10;
+    private Argon2 argon2 = new Argon2();
+    private Pool pool = new Pool();
+
+    public enum Algorithm {
+        BCRYPT,
+        ARGON2ID
+    }
+
+    @Data
+    public static class Argon2 {
+        private int saltLength = 16;
+        private int hashLength = 32;
+        private int parallelism = 1;
+        /**
+         * Memory cost in KiB.
+         */
+        private int memory = 19_456;
+        private int iterations = 2;
+    }
+
+    /**
+     * Pool that runs every hash and verification, so login storms are capped
+     * at a fixed number of cores instead of every request thread.
+     */
+    @Data
+    public static class Pool {
+        /**
+         * Worker threads, 0 for the number of available processors.
+         */
+        private int threads = 0;
+        /**
+         * Hashes waiting for a worker beyond which new ones are rejected.
+         */
+        private int queueCapacity = 64;
+    }
+}
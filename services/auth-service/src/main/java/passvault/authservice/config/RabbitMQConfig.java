@@ -1,5 +1,6 @@
 package passvault.authservice.config;
 
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
@@ -13,6 +14,7 @@ public class RabbitMQConfig {
 
     public static final String USER_REGISTERED_QUEUE = "user.registered";
     public static final String PASSWORD_CHANGED_QUEUE = "password.changed";
+    public static final String TOKEN_REVOCATIONS_EXCHANGE = "token.revocations";
 
     @Bean
     public Queue userRegisteredQueue() {
@@ -24,6 +26,15 @@ public class RabbitMQConfig {
         return new Queue(PASSWORD_CHANGED_QUEUE, true);
     }
 
+    /**
+     * Fanout to every verifier instance; each one binds its own anonymous
+     * queue (see TokenRevocationListener).
+     */
+    @Bean
+    public FanoutExchange tokenRevocationsExchange() {
+        return new FanoutExchange(TOKEN_REVOCATIONS_EXCHANGE, true, false);
+    }
+
     @Bean
     public MessageConverter jsonMessageConverter() {
         return new JacksonJsonMessageConverter();
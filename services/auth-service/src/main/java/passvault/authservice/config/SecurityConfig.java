@@ -1,11 +1,15 @@
 package passvault.authservice.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -13,21 +17,37 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import passvault.authservice.security.CustomUserDetailsService;
+import passvault.authservice.security.BoundedPasswordEncoder;
 import passvault.authservice.security.JwtAuthenticationFilter;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
 @RequiredArgsConstructor
 public class SecurityConfig {
 
+    /**
+     * Header carrying the key shared with other services for /internal/**.
+     */
+    public static final String INTERNAL_API_KEY_HEADER = "X-Internal-Api-Key";
+
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Value("${internal.api-key:}")
+    private String internalApiKey;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -35,7 +55,10 @@ public class SecurityConfig {
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/api/auth/register", "/api/auth/login", "/api/auth/refresh", "/api/auth/validate").permitAll()
+                        .requestMatchers("/api/auth/register", "/api/auth/login", "/api/auth/refresh", "/api/auth/validate",
+                                "/api/auth/validate/batch", "/api/auth/.well-known/jwks.json").permitAll()
+                        .requestMatchers("/internal/**").access(internalCaller())
+                        .requestMatchers("/api/auth/admin/**").hasRole("ADMIN")
                         .requestMatchers("/actuator/**").permitAll()
                         .requestMatchers("/error").permitAll()
                         .anyRequest().authenticated())
@@ -43,13 +66,44 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * The service port is reachable from outside the network, so internal
+     * endpoints require the shared key. They stay closed when none is set.
+     */
+    private AuthorizationManager<RequestAuthorizationContext> internalCaller() {
+        byte[] expected = internalApiKey.getBytes(StandardCharsets.UTF_8);
+        return (authentication, context) -> {
+            String presented = context.getRequest().getHeader(INTERNAL_API_KEY_HEADER);
+            return new AuthorizationDecision(expected.length > 0 && presented != null
+                    && MessageDigest.isEqual(expected, presented.getBytes(StandardCharsets.UTF_8)));
+        };
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
         return config.getAuthenticationManager();
     }
 
+    /**
+     * Delegating encoder that writes hashes with the configured algorithm and
+     * reads bcrypt and argon2 hashes alike. Hashes stored before the {id}
+     * prefix was introduced are bcrypt. Hashing runs on a bounded pool.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+        PasswordHashingProperties.Argon2 argon2 = properties.getArgon2();
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(properties.getBcryptStrength());
+        Map<String, PasswordEncoder> encoders = Map.of(
+                "bcrypt", bcrypt,
+                "argon2", new Argon2PasswordEncoder(argon2.getSaltLength(), argon2.getHashLength(),
+                        argon2.getParallelism(), argon2.getMemory(), argon2.getIterations())
+        );
+        String encodingId = properties.getAlgorithm() == PasswordHashingProperties.Algorithm.ARGON2ID ? "argon2" : "bcrypt";
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(encodingId, encoders);
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        PasswordHashingProperties.Pool pool = properties.getPool();
+        int threads = pool.getThreads() > 0 ? pool.getThreads() : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(delegating, threads, pool.getQueueCapacity(), meterRegistry);
     }
 }
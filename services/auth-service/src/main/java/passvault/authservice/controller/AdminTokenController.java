@@ -0,0 +1,28 @@
+package passvault.authservice.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import passvault.authservice.dto.MessageResponse;
+import passvault.authservice.service.TokenRevocationService;
+
+@RestController
+@RequestMapping("/api/auth/admin/tokens")
+@RequiredArgsConstructor
+public class AdminTokenController {
+
+    private final TokenRevocationService tokenRevocationService;
+
+    /**
+     * Revoke a single access token by its jti, e.g. one that leaked (ROLE_ADMIN)
+     * POST /api/auth/admin/tokens/{tokenId}/revoke
+     */
+    @PostMapping("/{tokenId}/revoke")
+    public ResponseEntity<MessageResponse> revokeToken(@PathVariable String tokenId) {
+        tokenRevocationService.revokeToken(tokenId);
+        return ResponseEntity.ok(MessageResponse.success("Token revoked"));
+    }
+}
@@ -0,0 +1,36 @@
+package passvault.authservice.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import passvault.authservice.dto.ProvisioningResponse;
+import passvault.authservice.service.UserProvisioningService;
+import passvault.authservice.service.UserProvisioningService.Format;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/auth/admin/users")
+@RequiredArgsConstructor
+public class AdminUserController {
+
+    private static final String TEXT_CSV = "text/csv";
+
+    private final UserProvisioningService userProvisioningService;
+
+    /**
+     * Create users in bulk from a streamed NDJSON or CSV list (ROLE_ADMIN)
+     * POST /api/auth/admin/users/import
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV})
+    public ResponseEntity<ProvisioningResponse> importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                            InputStream body) {
+        Format format = contentType.isCompatibleWith(MediaType.APPLICATION_NDJSON) ? Format.NDJSON : Format.CSV;
+        return ResponseEntity.ok(userProvisioningService.provision(body, format));
+    }
+}
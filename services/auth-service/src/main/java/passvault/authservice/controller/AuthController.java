@@ -3,13 +3,17 @@ package passvault.authservice.controller;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import passvault.authservice.dto.*;
+import passvault.authservice.security.UserPrincipal;
 import passvault.authservice.service.AuthService;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
@@ -34,20 +38,33 @@ public class AuthController {
     @PostMapping("/login")
     public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request,
                                                HttpServletRequest httpRequest) {
-        String ipAddress = getClientIpAddress(httpRequest);
+        // The gateway's X-Forwarded-For is already applied by Tomcat's RemoteIpValve
+        String ipAddress = httpRequest.getRemoteAddr();
         AuthResponse response = authService.login(request, ipAddress);
         return ResponseEntity.ok(response);
     }
 
     /**
-     * Logout and invalidate session/tokens
+     * Logout and invalidate the current session's tokens
      * POST /api/auth/logout
      */
     @PostMapping("/logout")
-    public ResponseEntity<MessageResponse> logout() {
+    public ResponseEntity<MessageResponse> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        MessageResponse response = authService.logout(userPrincipal.getId(), authHeader.substring(7));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Sign out everywhere: invalidate the tokens of every session of the user
+     * POST /api/auth/logout-all
+     */
+    @PostMapping("/logout-all")
+    public ResponseEntity<MessageResponse> logoutEverywhere() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        MessageResponse response = authService.logout(username);
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        MessageResponse response = authService.logoutEverywhere(userPrincipal.getId());
         return ResponseEntity.ok(response);
     }
 
@@ -72,12 +89,15 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
-    private String getClientIpAddress(HttpServletRequest request) {
-        String xForwardedForHeader = request.getHeader("X-Forwarded-For");
-        if (xForwardedForHeader != null && !xForwardedForHeader.isEmpty()) {
-            return xForwardedForHeader.split(",")[0].trim();
-        }
-        return request.getRemoteAddr();
+    /**
+     * Validate up to 500 tokens at once, results in request order (internal use)
+     * POST /api/auth/validate/batch
+     */
+    @PostMapping("/validate/batch")
+    public ResponseEntity<List<TokenValidationResponse>> validateTokens(
+            @Valid @RequestBody BatchTokenValidationRequest request) {
+        List<TokenValidationResponse> response = authService.validateTokens(request.getTokens());
+        return ResponseEntity.ok(response);
     }
 }
 
@@ -0,0 +1,32 @@
+package passvault.authservice.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import passvault.authservice.config.JwtSigningProperties;
+import passvault.authservice.security.SigningKeyRing;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/auth/.well-known")
+@RequiredArgsConstructor
+public class JwksController {
+
+    private final SigningKeyRing keyRing;
+    private final JwtSigningProperties signingProperties;
+
+    /**
+     * Public keys for verifying access tokens
+     * GET /api/auth/.well-known/jwks.json
+     */
+    @GetMapping(value = "/jwks.json", produces = "application/jwk-set+json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(signingProperties.getJwksMaxAge()).cachePublic())
+                .body(keyRing.jwks());
+    }
+}
@@ -0,0 +1,32 @@
+package passvault.authservice.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import passvault.authservice.event.TokenRevokedEvent;
+import passvault.authservice.service.TokenRevocationService;
+
+import java.util.List;
+
+/**
+ * Not routed by the gateway; called by verifiers inside the network, which
+ * authenticate with the shared internal API key (see SecurityConfig).
+ */
+@RestController
+@RequestMapping("/internal")
+@RequiredArgsConstructor
+public class TokenRevocationController {
+
+    private final TokenRevocationService tokenRevocationService;
+
+    /**
+     * Revocations still in effect, loaded by token verifiers on startup
+     * GET /internal/token-revocations
+     */
+    @GetMapping("/token-revocations")
+    public ResponseEntity<List<TokenRevokedEvent>> activeRevocations() {
+        return ResponseEntity.ok(tokenRevocationService.activeRevocations());
+    }
+}
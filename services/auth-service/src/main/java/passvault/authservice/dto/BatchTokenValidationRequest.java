@@ -0,0 +1,22 @@
+package passvault.authservice.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchTokenValidationRequest {
+
+    public static final int MAX_TOKENS = 500;
+
+    @NotNull(message = "Tokens are required")
+    @Size(max = MAX_TOKENS, message = "At most " + MAX_TOKENS + " tokens can be validated per request")
+    private List<String> tokens;
+
+}
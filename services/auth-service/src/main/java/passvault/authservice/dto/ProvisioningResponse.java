@@ -0,0 +1,35 @@
+package passvault.authservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProvisioningResponse {
+
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private int received;
+    private int created;
+    private int rejected;
+
+    /**
+     * The first {@link #MAX_REPORTED_ERRORS} rejected records; rejected counts
+     * all of them.
+     */
+    private List<RecordError> errors = new ArrayList<>();
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RecordError {
+        private long line;
+        private String username;
+        private String message;
+    }
+}
@@ -2,6 +2,7 @@ package passvault.authservice.dto;
 
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import passvault.authservice.security.TokenClaims;
 
 import java.util.Set;
 import java.util.UUID;
@@ -15,6 +16,9 @@ public class TokenValidationResponse {
     private UUID userId;
     private Set<String> roles;
     private String message;
+    private String tokenId;
+    private UUID sessionId;
+    private Long issuedAtMillis;
 
     public TokenValidationResponse(boolean valid, String message) {
         this.valid = valid;
@@ -27,4 +31,11 @@ public class TokenValidationResponse {
         this.userId = userId;
         this.roles = roles;
     }
+
+    public TokenValidationResponse(TokenClaims claims) {
+        this(true, claims.username(), claims.userId(), claims.roles());
+        this.tokenId = claims.tokenId();
+        this.sessionId = claims.sessionId();
+        this.issuedAtMillis = claims.issuedAt() != null ? claims.issuedAt().toEpochMilli() : null;
+    }
 }
@@ -2,31 +2,58 @@ package passvault.authservice.event;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 import passvault.authservice.config.RabbitMQConfig;
+import passvault.authservice.model.OutboxEvent;
 import passvault.authservice.model.User;
+import passvault.authservice.repository.OutboxEventRepository;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * Domain events are written to the outbox in the caller's transaction and
+ * published by {@link OutboxRelay} after it commits. Token revocations are
+ * sent directly: they are best effort and resynced from the database anyway.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EventPublisher {
 
     private final RabbitTemplate rabbitTemplate;
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxRelay outboxRelay;
 
+    @Transactional(propagation = Propagation.MANDATORY)
     public void publishUserRegistered(User user) {
-        UserRegisteredEvent event = UserRegisteredEvent.builder()
-                .userId(user.getId().toString())
-                .email(user.getEmail())
-                .username(user.getUsername())
-                .build();
+        enqueue(RabbitMQConfig.USER_REGISTERED_QUEUE, userRegisteredEvent(user));
+        log.info("Queued UserRegisteredEvent for user: {}", user.getUsername());
+    }
 
-        rabbitTemplate.convertAndSend(RabbitMQConfig.USER_REGISTERED_QUEUE, event);
-        log.info("Published UserRegisteredEvent for user: {}", user.getUsername());
+    /**
+     * Queues one UserRegisteredEvent per user with a single batched insert;
+     * the relay then publishes them together.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishUsersRegistered(List<User> users) {
+        List<OutboxEvent> outboxEvents = new ArrayList<>(users.size());
+        for (User user : users) {
+            outboxEvents.add(toOutboxEvent(RabbitMQConfig.USER_REGISTERED_QUEUE, userRegisteredEvent(user)));
+        }
+        outboxEventRepository.saveAll(outboxEvents);
+        outboxRelay.wakeUpAfterCommit();
+        log.info("Queued {} UserRegisteredEvent(s)", users.size());
     }
 
+    @Transactional(propagation = Propagation.MANDATORY)
     public void publishPasswordChanged(User user) {
         PasswordChangedEvent event = PasswordChangedEvent.builder()
                 .userId(user.getId().toString())
@@ -35,7 +62,45 @@ public class EventPublisher {
                 .changedAt(Instant.now())
                 .build();
 
-        rabbitTemplate.convertAndSend(RabbitMQConfig.PASSWORD_CHANGED_QUEUE, event);
-        log.info("Published PasswordChangedEvent for user: {}", user.getUsername());
+        enqueue(RabbitMQConfig.PASSWORD_CHANGED_QUEUE, event);
+        log.info("Queued PasswordChangedEvent for user: {}", user.getUsername());
+    }
+
+    public void publishTokenRevoked(TokenRevokedEvent event) {
+        rabbitTemplate.convertAndSend(RabbitMQConfig.TOKEN_REVOCATIONS_EXCHANGE, "", event);
+        log.debug("Published TokenRevokedEvent: {}", event);
+    }
+
+    private void enqueue(String routingKey, Object event) {
+        outboxEventRepository.save(toOutboxEvent(routingKey, event));
+        outboxRelay.wakeUpAfterCommit();
+    }
+
+    /**
+     * Converts the event the same way RabbitTemplate would, so consumers see
+     * the same body and type header as before.
+     */
+    private OutboxEvent toOutboxEvent(String routingKey, Object event) {
+        Message message = rabbitTemplate.getMessageConverter().toMessage(event, new MessageProperties());
+        Instant now = Instant.now();
+        return new OutboxEvent(
+                null,
+                "",
+                routingKey,
+                message.getMessageProperties().getHeader(OutboxRelay.TYPE_ID_HEADER),
+                new String(message.getBody(), StandardCharsets.UTF_8),
+                now,
+                0,
+                now,
+                null
+        );
+    }
+
+    private static UserRegisteredEvent userRegisteredEvent(User user) {
+        return UserRegisteredEvent.builder()
+                .userId(user.getId().toString())
+                .email(user.getEmail())
+                .username(user.getUsername())
+                .build();
     }
 }
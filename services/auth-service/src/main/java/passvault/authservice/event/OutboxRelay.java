@@ -0,0 +1,266 @@
+package passvault.authservice.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import passvault.authservice.config.OutboxProperties;
+import passvault.authservice.model.OutboxEvent;
+import passvault.authservice.repository.OutboxEventRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the outbox on a background thread. Each batch is locked, sent,
+ * and the broker's publisher confirms awaited before confirmed rows are
+ * deleted in the same transaction. Nacked or unconfirmed events are retried
+ * with exponential backoff per event; when the broker cannot be reached at
+ * all, the relay itself backs off.
+ * <p>
+ * Commits that write to the outbox wake the relay up, so events normally
+ * leave within milliseconds; the poll interval only bounds the delay for
+ * retries and for events written by other instances.
+ */
+@Slf4j
+@Component
+public class OutboxRelay implements DisposableBean {
+
+    /**
+     * Header the JSON message converter writes the payload type to, and
+     * consumers read it from.
+     */
+    static final String TYPE_ID_HEADER = "__TypeId__";
+
+    private static final int MAX_ERROR_LENGTH = 512;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxProperties properties;
+    private final ScheduledExecutorService executor =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("outbox-relay-"));
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+
+    private final AtomicLong depth = new AtomicLong();
+    private final AtomicLong oldestPendingMillis = new AtomicLong();
+    private final Timer deliveryLag;
+    private final Counter failedDeliveries;
+
+    // Only touched on the relay thread
+    private int consecutiveBrokerFailures;
+    private long pausedUntilMillis;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, RabbitTemplate rabbitTemplate,
+                       PlatformTransactionManager transactionManager, OutboxProperties properties,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+
+        Gauge.builder("outbox.depth", depth, AtomicLong::get)
+                .description("Events waiting in the outbox")
+                .register(meterRegistry);
+        TimeGauge.builder("outbox.lag", oldestPendingMillis, TimeUnit.MILLISECONDS, oldest -> {
+                    long since = oldest.get();
+                    return since == 0 ? 0 : Math.max(0, System.currentTimeMillis() - since);
+                })
+                .description("Age of the oldest event waiting in the outbox")
+                .register(meterRegistry);
+        this.deliveryLag = Timer.builder("outbox.delivery.lag")
+                .description("Time from writing an event to its confirm by the broker")
+                .register(meterRegistry);
+        this.failedDeliveries = Counter.builder("outbox.delivery.failed")
+                .description("Events nacked or not confirmed in time, retried later")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long interval = properties.getPollInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::drain, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Drains the outbox once the current transaction has committed, or right
+     * away outside a transaction. Wake-ups arriving while one is pending are
+     * merged.
+     */
+    public void wakeUpAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            wakeUp();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                wakeUp();
+            }
+        });
+    }
+
+    private void wakeUp() {
+        if (wakeUpPending.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                wakeUpPending.set(false);
+                drain();
+            });
+        }
+    }
+
+    private void drain() {
+        if (System.currentTimeMillis() < pausedUntilMillis) {
+            return;
+        }
+        try {
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == properties.getBatchSize());
+            consecutiveBrokerFailures = 0;
+        } catch (AmqpException e) {
+            Duration backoff = backoff(++consecutiveBrokerFailures);
+            pausedUntilMillis = System.currentTimeMillis() + backoff.toMillis();
+            log.warn("Outbox relay cannot reach the broker, retrying in {}: {}", backoff, e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Outbox relay failed", e);
+        }
+        refreshBacklog();
+    }
+
+    /**
+     * Publishes one batch and returns its size. A failed send rolls the batch
+     * back, so events already sent may be published again later.
+     */
+    private int relayBatch() {
+        Integer relayed = transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<OutboxEvent> batch = outboxEventRepository.lockDue(now,
+                    PageRequest.of(0, properties.getBatchSize()));
+            if (batch.isEmpty()) {
+                return 0;
+            }
+
+            List<CorrelationData> confirms = new ArrayList<>(batch.size());
+            for (OutboxEvent event : batch) {
+                CorrelationData correlation = new CorrelationData(event.getId().toString());
+                rabbitTemplate.send(event.getExchange(), event.getRoutingKey(), toMessage(event), correlation);
+                confirms.add(correlation);
+            }
+
+            long deadline = System.nanoTime() + properties.getConfirmTimeout().toNanos();
+            List<UUID> delivered = new ArrayList<>(batch.size());
+            Instant confirmedAt = null;
+            for (int i = 0; i < batch.size(); i++) {
+                OutboxEvent event = batch.get(i);
+                String failure = awaitConfirm(confirms.get(i), deadline);
+                if (failure == null) {
+                    if (confirmedAt == null) {
+                        confirmedAt = Instant.now();
+                    }
+                    delivered.add(event.getId());
+                    deliveryLag.record(Duration.between(event.getCreatedAt(), confirmedAt));
+                } else {
+                    scheduleRetry(event, failure, now);
+                }
+            }
+            if (!delivered.isEmpty()) {
+                outboxEventRepository.deleteAllByIdInBatch(delivered);
+            }
+            return batch.size();
+        });
+        return relayed != null ? relayed : 0;
+    }
+
+    /**
+     * Returns null when the broker acked the message, otherwise the reason.
+     */
+    private static String awaitConfirm(CorrelationData correlation, long deadlineNanos) {
+        try {
+            CorrelationData.Confirm confirm = correlation.getFuture()
+                    .get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            if (confirm.ack()) {
+                return null;
+            }
+            return confirm.reason() != null ? "Nacked: " + confirm.reason() : "Nacked by broker";
+        } catch (TimeoutException e) {
+            return "No publisher confirm within timeout";
+        } catch (ExecutionException e) {
+            return String.valueOf(e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "Interrupted while waiting for publisher confirm";
+        }
+    }
+
+    private void scheduleRetry(OutboxEvent event, String failure, Instant now) {
+        failedDeliveries.increment();
+        event.setAttempts(event.getAttempts() + 1);
+        event.setNextAttemptAt(now.plus(backoff(event.getAttempts())));
+        event.setLastError(failure.length() > MAX_ERROR_LENGTH ? failure.substring(0, MAX_ERROR_LENGTH) : failure);
+        log.warn("Outbox event {} not confirmed (attempt {}): {}", event.getId(), event.getAttempts(), failure);
+    }
+
+    private Duration backoff(int failures) {
+        Duration max = properties.getMaxBackoff();
+        Duration delay = properties.getInitialBackoff().multipliedBy(1L << Math.min(failures - 1, 30));
+        return delay.compareTo(max) > 0 ? max : delay;
+    }
+
+    private void refreshBacklog() {
+        try {
+            OutboxEventRepository.Backlog backlog = outboxEventRepository.backlog();
+            depth.set(backlog.getDepth());
+            oldestPendingMillis.set(backlog.getOldest() != null ? backlog.getOldest().toEpochMilli() : 0);
+        } catch (RuntimeException e) {
+            log.debug("Could not read outbox backlog: {}", e.getMessage());
+        }
+    }
+
+    private static Message toMessage(OutboxEvent event) {
+        MessageProperties messageProperties = new MessageProperties();
+        messageProperties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        messageProperties.setContentEncoding(StandardCharsets.UTF_8.name());
+        messageProperties.setDeliveryMode(MessageDeliveryMode.PERSISTENT);
+        messageProperties.setMessageId(event.getId().toString());
+        messageProperties.setTimestamp(Date.from(event.getCreatedAt()));
+        messageProperties.setHeader(TYPE_ID_HEADER, event.getEventType());
+        return new Message(event.getPayload().getBytes(StandardCharsets.UTF_8), messageProperties);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -1,5 +1,6 @@
 package passvault.authservice.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -26,7 +27,7 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(TokenRefreshException.class)
     public ResponseEntity<MessageResponse> handleTokenRefresh(TokenRefreshException ex) {
         return ResponseEntity
-                .status(HttpStatus.FORBIDDEN)
+                .status(HttpStatus.UNAUTHORIZED)
                 .body(MessageResponse.error(ex.getMessage()));
     }
 
@@ -44,6 +45,29 @@ public class GlobalExceptionHandler {
                 .body(MessageResponse.error(ex.getMessage()));
     }
 
+    @ExceptionHandler(LoginThrottledException.class)
+    public ResponseEntity<MessageResponse> handleLoginThrottled(LoginThrottledException ex) {
+        return ResponseEntity
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfter().toSeconds()))
+                .body(MessageResponse.error(ex.getMessage()));
+    }
+
+    @ExceptionHandler(PasswordHashingUnavailableException.class)
+    public ResponseEntity<MessageResponse> handlePasswordHashingUnavailable(PasswordHashingUnavailableException ex) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(MessageResponse.error(ex.getMessage()));
+    }
+
+    @ExceptionHandler(InvalidImportException.class)
+    public ResponseEntity<MessageResponse> handleInvalidImport(InvalidImportException ex) {
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(MessageResponse.error(ex.getMessage()));
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, String>> handleValidationExceptions(MethodArgumentNotValidException ex) {
         Map<String, String> errors = new HashMap<>();
@@ -0,0 +1,8 @@
+package passvault.authservice.exception;
+
+public class InvalidImportException extends RuntimeException {
+
+    public InvalidImportException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package passvault.authservice.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class LoginThrottledException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public LoginThrottledException(Duration retryAfter) {
+        super("Too many login attempts, try again later");
+        this.retryAfter = retryAfter;
+    }
+
+}
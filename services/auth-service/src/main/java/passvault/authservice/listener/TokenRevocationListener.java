@@ -0,0 +1,30 @@
+package passvault.authservice.listener;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.core.ExchangeTypes;
+import org.springframework.amqp.rabbit.annotation.Exchange;
+import org.springframework.amqp.rabbit.annotation.Queue;
+import org.springframework.amqp.rabbit.annotation.QueueBinding;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+import passvault.authservice.config.RabbitMQConfig;
+import passvault.authservice.event.TokenRevokedEvent;
+import passvault.authservice.service.TokenRevocationService;
+
+/**
+ * Applies revocations made by any auth-service instance to this instance's
+ * {@link passvault.authservice.security.RevocationList}.
+ */
+@Component
+@RequiredArgsConstructor
+public class TokenRevocationListener {
+
+    private final TokenRevocationService tokenRevocationService;
+
+    @RabbitListener(bindings = @QueueBinding(
+            value = @Queue(exclusive = "true", autoDelete = "true"),
+            exchange = @Exchange(value = RabbitMQConfig.TOKEN_REVOCATIONS_EXCHANGE, type = ExchangeTypes.FANOUT)))
+    public void handleTokenRevoked(TokenRevokedEvent event) {
+        tokenRevocationService.apply(event);
+    }
+}
@@ -4,12 +4,24 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.Instant;
 import java.util.UUID;
 
+/**
+ * One refresh token of one login session. Only a SHA-256 hash of the token
+ * is stored. Every refresh marks the row as revoked (ROTATED) and issues a
+ * new token in the same family; presenting a rotated token again after the
+ * reuse grace period revokes the family.
+ */
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_sessions", indexes = {
+        @Index(name = "idx_refresh_sessions_token_hash", columnList = "token_hash", unique = true),
+        @Index(name = "idx_refresh_sessions_family_id", columnList = "family_id"),
+        @Index(name = "idx_refresh_sessions_user_id", columnList = "user_id"),
+        @Index(name = "idx_refresh_sessions_expiry_date", columnList = "expiry_date")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -19,17 +31,39 @@ public class RefreshToken {
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
-    @Column(nullable = false, unique = true)
-    private String token;
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
 
-    @OneToOne
-    @JoinColumn(name = "user_id", referencedColumnName = "id")
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", referencedColumnName = "id", nullable = false)
     private User user;
 
-    @Column(nullable = false)
+    @Column(name = "family_id", nullable = false)
+    private UUID familyId;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "expiry_date", nullable = false)
     private Instant expiryDate;
 
     @Column(nullable = false)
     private boolean revoked = false;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "revocation_reason", length = 16)
+    private RevocationReason revocationReason;
+
+    @Column(name = "revoked_at")
+    private Instant revokedAt;
+
+    public enum RevocationReason {
+        /** Exchanged for its successor. */
+        ROTATED,
+        /** The session was ended by logout, sign-out everywhere or a disabled account. */
+        LOGGED_OUT,
+        /** A rotated token of the family was presented again. */
+        REUSED
+    }
 }
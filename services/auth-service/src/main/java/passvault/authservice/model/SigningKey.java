@@ -0,0 +1,45 @@
+package passvault.authservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Asymmetric key pair used to sign access tokens. A key signs between
+ * activatesAt and retiresAt and stays published for verification until
+ * expiresAt. The private key is stored encrypted.
+ */
+@Entity
+@Table(name = "signing_keys")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SigningKey {
+
+    @Id
+    private String kid;
+
+    @Column(nullable = false, length = 16)
+    private String algorithm;
+
+    @Column(name = "public_key", nullable = false, length = 1024)
+    private byte[] publicKey;
+
+    @Column(name = "private_key", nullable = false, length = 1024)
+    private byte[] privateKey;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "activates_at", nullable = false)
+    private Instant activatesAt;
+
+    @Column(name = "retires_at", nullable = false)
+    private Instant retiresAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
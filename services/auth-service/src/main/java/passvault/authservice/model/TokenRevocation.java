@@ -0,0 +1,44 @@
+package passvault.authservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Revoked access token (tokenId set), revoked login session (sessionId set)
+ * or revoked user epoch (userId and issuedBefore set). Kept until the affected tokens have expired, so
+ * verifiers that start later can load the current list.
+ */
+@Entity
+@Table(name = "token_revocations", indexes = {
+        @Index(name = "idx_token_revocations_expires_at", columnList = "expires_at")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TokenRevocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "token_id")
+    private String tokenId;
+
+    @Column(name = "session_id")
+    private UUID sessionId;
+
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Column(name = "issued_before")
+    private Instant issuedBefore;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+}
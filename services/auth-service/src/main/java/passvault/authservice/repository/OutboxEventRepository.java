@@ -0,0 +1,38 @@
+package passvault.authservice.repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+import passvault.authservice.model.OutboxEvent;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, UUID> {
+
+    /**
+     * Oldest events due for publishing, locked for the rest of the
+     * transaction. Rows locked by another relay instance are skipped rather
+     * than waited for.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.nextAttemptAt <= :now ORDER BY e.createdAt, e.id")
+    List<OutboxEvent> lockDue(Instant now, Pageable pageable);
+
+    @Query("SELECT COUNT(e) AS depth, MIN(e.createdAt) AS oldest FROM OutboxEvent e")
+    Backlog backlog();
+
+    interface Backlog {
+        long getDepth();
+
+        Instant getOldest();
+    }
+}
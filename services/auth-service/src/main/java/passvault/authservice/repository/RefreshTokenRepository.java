@@ -1,5 +1,6 @@
 package passvault.authservice.repository;
 
+import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -8,21 +9,49 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import org.springframework.transaction.annotation.Transactional;
 import passvault.authservice.model.RefreshToken;
+import passvault.authservice.model.RefreshToken.RevocationReason;
 import passvault.authservice.model.User;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID> {
     
-    Optional<RefreshToken> findByToken(String token);
-    
-    Optional<RefreshToken> findByUserAndRevokedFalse(User user);
-    
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    /**
+     * Revokes one token unless another request already did; returns 0 in that
+     * case.
+     */
     @Modifying
-    @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.user = :user")
-    void revokeAllUserTokens(User user);
-    
+    @Query("UPDATE RefreshToken rt SET rt.revoked = true, rt.revocationReason = :reason, rt.revokedAt = :now "
+            + "WHERE rt.id = :id AND rt.revoked = false")
+    int revokeIfActive(UUID id, RevocationReason reason, Instant now);
+
+    /**
+     * Read from the database rather than the persistence context, for a token
+     * another transaction has just revoked.
+     */
+    @Query("SELECT rt.revocationReason FROM RefreshToken rt WHERE rt.id = :id")
+    RevocationReason findRevocationReason(UUID id);
+
+    /**
+     * Revokes every token of the family, including already rotated ones, so
+     * none of them counts as rotated any more.
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken rt SET rt.revoked = true, rt.revocationReason = :reason, rt.revokedAt = :now "
+            + "WHERE rt.familyId = :familyId")
+    int revokeFamily(UUID familyId, RevocationReason reason, Instant now);
+
+    @Modifying
+    @Query("UPDATE RefreshToken rt SET rt.revoked = true, rt.revocationReason = :reason, rt.revokedAt = :now "
+            + "WHERE rt.user = :user")
+    void revokeAllUserTokens(User user, RevocationReason reason, Instant now);
+
+    @Transactional
     @Modifying
-    @Query("DELETE FROM RefreshToken rt WHERE rt.user = :user")
-    void deleteByUser(User user);
+    @Query(value = "DELETE FROM refresh_sessions WHERE id IN "
+            + "(SELECT id FROM refresh_sessions WHERE expiry_date < :now LIMIT :limit)", nativeQuery = true)
+    int deleteExpired(Instant now, int limit);
 }
@@ -0,0 +1,9 @@
+package passvault.authservice.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import passvault.authservice.model.SigningKey;
+
+@Repository
+public interface SigningKeyRepository extends JpaRepository<SigningKey, String> {
+}
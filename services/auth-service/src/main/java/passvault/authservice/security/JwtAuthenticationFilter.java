@@ -6,6 +6,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -23,10 +24,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
     private final CustomUserDetailsService userDetailsService;
+    private final UserStatusCache userStatusCache;
+    private final boolean stateless;
+    private final boolean checkEnabled;
 
-    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, CustomUserDetailsService userDetailsService) {
+    /**
+     * @param stateless    build the principal from the token claims instead of
+     *                     loading the user from the database on every request
+     * @param checkEnabled in stateless mode, reject users whose cached enabled
+     *                     flag is false
+     */
+    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, CustomUserDetailsService userDetailsService,
+                                   UserStatusCache userStatusCache,
+                                   @Value("${jwt.authentication.stateless:true}") boolean stateless,
+                                   @Value("${jwt.authentication.check-enabled:true}") boolean checkEnabled) {
         this.tokenProvider = tokenProvider;
         this.userDetailsService = userDetailsService;
+        this.userStatusCache = userStatusCache;
+        this.stateless = stateless;
+        this.checkEnabled = checkEnabled;
     }
 
     @Override
@@ -35,10 +51,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            TokenClaims claims = StringUtils.hasText(jwt) ? tokenProvider.verifyToken(jwt).orElse(null) : null;
+            if (claims != null && isEnabled(claims)) {
+                UserDetails userDetails = stateless
+                        ? UserPrincipal.create(claims)
+                        : userDetailsService.loadUserByUsername(claims.username());
                 UsernamePasswordAuthenticationToken authentication = 
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -52,6 +69,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private boolean isEnabled(TokenClaims claims) {
+        return !stateless || !checkEnabled || userStatusCache.isEnabled(claims.userId());
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
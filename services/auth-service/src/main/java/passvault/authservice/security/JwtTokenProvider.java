@@ -3,15 +3,21 @@ package passvault.authservice.security;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
+import passvault.authservice.config.JwtSigningProperties;
 
 import javax.crypto.SecretKey;
+import java.security.Key;
+import java.time.Instant;
 import java.util.Date;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -20,6 +26,18 @@ public class JwtTokenProvider {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
 
+    /**
+     * Issue time in epoch milliseconds. iat only has whole seconds, which is
+     * too coarse to tell a login apart from a logout in the same second.
+     */
+    public static final String ISSUED_AT_MILLIS_CLAIM = "issuedAtMillis";
+
+    /**
+     * Login session (refresh token family) the token was issued for, so the
+     * session's access tokens can be revoked together with it.
+     */
+    public static final String SESSION_ID_CLAIM = "sid";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
@@ -29,17 +47,44 @@ public class JwtTokenProvider {
     @Value("${jwt.refresh-token-expiration}")
     private long refreshTokenExpiration;
 
+    private final SigningKeyRing keyRing;
+    private final RevocationList revocationList;
+    private final JwtSigningProperties signingProperties;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    public JwtTokenProvider(SigningKeyRing keyRing, RevocationList revocationList,
+            JwtSigningProperties signingProperties) {
+        this.keyRing = keyRing;
+        this.revocationList = revocationList;
+        this.signingProperties = signingProperties;
+    }
+
+    /**
+     * Decodes the secret and builds the parser once; both are immutable and
+     * thread-safe, so every request shares them. Tokens with a "kid" header are
+     * verified against the key ring, tokens without one against the HMAC secret
+     * (see {@link #acceptsHmacTokens()}).
+     */
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        parser = Jwts.parser()
+                .keyLocator(new KeyLocator())
+                .build();
+    }
+
     private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
 
-    public String generateAccessToken(Authentication authentication) {
+    public String generateAccessToken(Authentication authentication, UUID sessionId) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-        return generateAccessToken(userPrincipal);
+        return generateAccessToken(userPrincipal, sessionId);
     }
 
-    public String generateAccessToken(UserPrincipal userPrincipal) {
+    public String generateAccessToken(UserPrincipal userPrincipal, UUID sessionId) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + accessTokenExpiration);
 
@@ -47,52 +92,74 @@ public class JwtTokenProvider {
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.joining(","));
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(userPrincipal.getUsername())
                 .claim("userId", userPrincipal.getId().toString())
                 .claim("email", userPrincipal.getEmail())
                 .claim("roles", roles)
+                .claim(SESSION_ID_CLAIM, sessionId.toString())
                 .issuedAt(now)
-                .expiration(expiryDate)
-                .signWith(getSigningKey())
-                .compact();
-    }
+                .claim(ISSUED_AT_MILLIS_CLAIM, now.getTime())
+                .expiration(expiryDate);
 
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.getSubject();
+        SigningKeyRing.ActiveKey activeKey = keyRing.currentSigningKey();
+        if (activeKey == null) {
+            return builder.signWith(getSigningKey()).compact();
+        }
+        return builder.header().keyId(activeKey.kid()).and()
+                .signWith(activeKey.privateKey(), activeKey.algorithm())
+                .compact();
     }
 
-    public UUID getUserIdFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        String userIdStr = claims.get("userId", String.class);
-        return UUID.fromString(userIdStr);
+    /**
+     * Verifies the token once and returns its claims.
+     *
+     * @throws RevokedTokenException if the token or its user's sessions were revoked
+     * @throws JwtException if the token is malformed, expired or not signed by us
+     * @throws IllegalArgumentException if the token is empty or misses a claim
+     */
+    public TokenClaims parseToken(String token) {
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        String userId = claims.get("userId", String.class);
+        if (userId == null) {
+            throw new MalformedJwtException("Token has no userId claim");
+        }
+        String roles = claims.get("roles", String.class);
+        String sessionId = claims.get(SESSION_ID_CLAIM, String.class);
+        TokenClaims tokenClaims = new TokenClaims(
+                UUID.fromString(userId),
+                claims.getSubject(),
+                claims.get("email", String.class),
+                roles == null || roles.isEmpty() ? Set.of() : Set.of(roles.split(",")),
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null,
+                claims.getId(),
+                sessionId != null ? UUID.fromString(sessionId) : null,
+                issuedAt(claims)
+        );
+        long issuedAt = tokenClaims.issuedAt() != null ? tokenClaims.issuedAt().toEpochMilli() : 0L;
+        if (revocationList.isRevoked(tokenClaims.tokenId(), tokenClaims.userId(), tokenClaims.sessionId(),
+                issuedAt)) {
+            throw new RevokedTokenException("Token has been revoked");
+        }
+        return tokenClaims;
     }
 
-    public String getRolesFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.get("roles", String.class);
+    private static Instant issuedAt(Claims claims) {
+        Number issuedAtMillis = claims.get(ISSUED_AT_MILLIS_CLAIM, Number.class);
+        if (issuedAtMillis != null) {
+            return Instant.ofEpochMilli(issuedAtMillis.longValue());
+        }
+        return claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null;
     }
 
-    public boolean validateToken(String token) {
+    /**
+     * Same as {@link #parseToken(String)} but reports an invalid token as an
+     * empty result instead of an exception.
+     */
+    public Optional<TokenClaims> verifyToken(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
+            return Optional.of(parseToken(token));
         } catch (MalformedJwtException ex) {
             logger.error("Invalid JWT token");
         } catch (ExpiredJwtException ex) {
@@ -101,10 +168,63 @@ public class JwtTokenProvider {
             logger.error("Unsupported JWT token");
         } catch (IllegalArgumentException ex) {
             logger.error("JWT claims string is empty");
-        } catch (SecurityException ex) {
+        } catch (RevokedTokenException ex) {
+            logger.error("Revoked JWT token");
+        } catch (JwtException ex) {
             logger.error("JWT signature validation failed");
         }
-        return false;
+        return Optional.empty();
+    }
+
+    public String getUsernameFromToken(String token) {
+        return parseToken(token).username();
+    }
+
+    public UUID getUserIdFromToken(String token) {
+        return parseToken(token).userId();
+    }
+
+    public String getRolesFromToken(String token) {
+        return String.join(",", parseToken(token).roles());
+    }
+
+    public boolean validateToken(String token) {
+        return verifyToken(token).isPresent();
+    }
+
+    /**
+     * Tokens without a kid are signed with jwt.secret: current tokens under
+     * HS256, otherwise legacy ones, accepted only until the migration cutoff.
+     */
+    private boolean acceptsHmacTokens() {
+        if (signingProperties.getAlgorithm() == JwtSigningProperties.Algorithm.HS256) {
+            return true;
+        }
+        Instant until = signingProperties.getAcceptLegacyHs256Until();
+        return until != null && Instant.now().isBefore(until);
+    }
+
+    private class KeyLocator extends LocatorAdapter<Key> {
+
+        @Override
+        protected Key locate(JwsHeader header) {
+            String kid = header.getKeyId();
+            if (kid == null) {
+                String algorithm = header.getAlgorithm();
+                if (algorithm == null || !algorithm.startsWith("HS")) {
+                    throw new UnsupportedJwtException("Token without kid must be HMAC signed");
+                }
+                if (!acceptsHmacTokens()) {
+                    throw new UnsupportedJwtException("HMAC signed tokens are no longer accepted");
+                }
+                return signingKey;
+            }
+            Key key = keyRing.findVerificationKey(kid);
+            if (key == null) {
+                throw new UnsupportedJwtException("Unknown signing key " + kid);
+            }
+            return key;
+        }
     }
 
     public long getAccessTokenExpiration() {return accessTokenExpiration;}
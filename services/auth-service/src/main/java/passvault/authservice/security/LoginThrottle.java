@@ -0,0 +1,118 @@
+package passvault.authservice.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import passvault.authservice.config.LoginThrottleProperties;
+import passvault.authservice.exception.LoginThrottledException;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Rejects login attempts before any password is hashed once a username or a
+ * client IP has used up its attempts for the sliding window. Every attempt
+ * counts while it runs; successful ones are taken back, so only failures
+ * accumulate and a busy office behind one IP is not locked out by its own
+ * successful logins.
+ */
+@Component
+public class LoginThrottle {
+
+    private final LoginThrottleProperties properties;
+    private final Cache<String, SlidingWindowCounter> usernames;
+    private final Cache<String, SlidingWindowCounter> ipAddresses;
+    private final Counter throttledByUsername;
+    private final Counter throttledByIp;
+
+    public LoginThrottle(LoginThrottleProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.usernames = newCache(properties);
+        this.ipAddresses = newCache(properties);
+        this.throttledByUsername = Counter.builder("auth.login.throttled")
+                .tag("key", "username")
+                .description("Login attempts rejected before hashing")
+                .register(meterRegistry);
+        this.throttledByIp = Counter.builder("auth.login.throttled")
+                .tag("key", "ip")
+                .description("Login attempts rejected before hashing")
+                .register(meterRegistry);
+        Gauge.builder("auth.login.throttle.tracked", usernames, Cache::estimatedSize)
+                .tag("key", "username")
+                .register(meterRegistry);
+        Gauge.builder("auth.login.throttle.tracked", ipAddresses, Cache::estimatedSize)
+                .tag("key", "ip")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records an attempt for the username and IP (which may be null).
+     *
+     * @throws LoginThrottledException if either has no attempts left; the
+     *                                 rejected attempt itself is not counted
+     */
+    public void acquire(String username, String ipAddress) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long windowMillis = properties.getWindow().toMillis();
+        long now = System.currentTimeMillis();
+        long window = now / windowMillis;
+        double elapsed = (double) (now % windowMillis) / windowMillis;
+
+        SlidingWindowCounter userCounter = usernames.get(usernameKey(username), key -> new SlidingWindowCounter());
+        SlidingWindowCounter ipCounter = ipAddress != null
+                ? ipAddresses.get(ipAddress, key -> new SlidingWindowCounter())
+                : null;
+
+        if (!userCounter.tryIncrement(window, elapsed, properties.getMaxAttemptsPerUsername())) {
+            throttledByUsername.increment();
+            throw new LoginThrottledException(retryAfter(windowMillis, elapsed));
+        }
+        if (ipCounter != null && !ipCounter.tryIncrement(window, elapsed, properties.getMaxAttemptsPerIp())) {
+            userCounter.decrement(window);
+            throttledByIp.increment();
+            throw new LoginThrottledException(retryAfter(windowMillis, elapsed));
+        }
+    }
+
+    /**
+     * Takes back the attempt recorded by {@link #acquire} after it succeeded.
+     */
+    public void release(String username, String ipAddress) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long window = System.currentTimeMillis() / properties.getWindow().toMillis();
+        SlidingWindowCounter userCounter = usernames.getIfPresent(usernameKey(username));
+        if (userCounter != null) {
+            userCounter.decrement(window);
+        }
+        SlidingWindowCounter ipCounter = ipAddress != null ? ipAddresses.getIfPresent(ipAddress) : null;
+        if (ipCounter != null) {
+            ipCounter.decrement(window);
+        }
+    }
+
+    private static String usernameKey(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Time until the current window ends, after which at least part of the
+     * counted attempts have slid out.
+     */
+    private static Duration retryAfter(long windowMillis, double elapsed) {
+        return Duration.ofSeconds(Math.max(1, (long) Math.ceil(windowMillis * (1 - elapsed) / 1000)));
+    }
+
+    private static Cache<String, SlidingWindowCounter> newCache(LoginThrottleProperties properties) {
+        return Caffeine.newBuilder()
+                .maximumSize(properties.getMaxTrackedKeys())
+                .expireAfterAccess(properties.getWindow().multipliedBy(2))
+                .build();
+    }
+}
@@ -0,0 +1,177 @@
+package passvault.authservice.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory denylist of revoked access tokens: a single token by its jti,
+ * every token of one login session by its sid, or every token of a user
+ * issued up to a point in time (the user's epoch). A bloom filter sits in front of the exact maps, so the common case,
+ * a token that was never revoked, is answered from a few bit probes without
+ * hashing into the maps or allocating.
+ * <p>
+ * Entries are kept until the revoked tokens would have expired anyway;
+ * {@link #purgeExpired(long)} drops them and rebuilds the filter.
+ */
+@Component
+public class RevocationList {
+
+    private static final int PROBES = 7;
+    private static final long USER_SEED = 0x9E3779B97F4A7C15L;
+
+    private final int filterBits;
+    private volatile State state;
+
+    public RevocationList(@Value("${jwt.revocation.expected-entries:100000}") int expectedEntries) {
+        // ~10 bits per entry gives about 1% false positives with 7 probes
+        this.filterBits = Integer.highestOneBit(Math.max(1024, expectedEntries * 10 - 1)) << 1;
+        this.state = new State(filterBits);
+    }
+
+    /**
+     * @param tokenId         jti claim, may be null for tokens issued without one
+     * @param sessionId       sid claim, may be null for tokens issued without one
+     * @param issuedAtMillis  issue time in epoch milliseconds
+     */
+    public boolean isRevoked(String tokenId, UUID userId, UUID sessionId, long issuedAtMillis) {
+        State current = state;
+        if (sessionId != null && current.mightContain(hash(sessionId)) && current.sessions.containsKey(sessionId)) {
+            return true;
+        }
+        if (userId != null && current.mightContain(hash(userId))) {
+            UserEpoch epoch = current.users.get(userId);
+            if (epoch != null && issuedAtMillis <= epoch.issuedBeforeMillis) {
+                return true;
+            }
+        }
+        return tokenId != null && current.mightContain(hash(tokenId)) && current.tokens.containsKey(tokenId);
+    }
+
+    public synchronized void revokeToken(String tokenId, long expiresAtMillis) {
+        State current = state;
+        current.tokens.merge(tokenId, expiresAtMillis, Math::max);
+        current.add(hash(tokenId));
+    }
+
+    /**
+     * Revokes every token issued for the login session.
+     */
+    public synchronized void revokeSession(UUID sessionId, long expiresAtMillis) {
+        State current = state;
+        current.sessions.merge(sessionId, expiresAtMillis, Math::max);
+        current.add(hash(sessionId));
+    }
+
+    /**
+     * Revokes every token of the user issued at or before the given
+     * millisecond.
+     */
+    public synchronized void revokeUser(UUID userId, long issuedBeforeMillis, long expiresAtMillis) {
+        State current = state;
+        current.users.merge(userId, new UserEpoch(issuedBeforeMillis, expiresAtMillis), UserEpoch::max);
+        current.add(hash(userId));
+    }
+
+    public synchronized void purgeExpired(long nowMillis) {
+        State current = state;
+        State next = new State(filterBits);
+        current.tokens.forEach((tokenId, expiresAt) -> {
+            if (expiresAt > nowMillis) {
+                next.tokens.put(tokenId, expiresAt);
+                next.add(hash(tokenId));
+            }
+        });
+        current.sessions.forEach((sessionId, expiresAt) -> {
+            if (expiresAt > nowMillis) {
+                next.sessions.put(sessionId, expiresAt);
+                next.add(hash(sessionId));
+            }
+        });
+        current.users.forEach((userId, epoch) -> {
+            if (epoch.expiresAtMillis > nowMillis) {
+                next.users.put(userId, epoch);
+                next.add(hash(userId));
+            }
+        });
+        state = next;
+    }
+
+    public int size() {
+        State current = state;
+        return current.tokens.size() + current.sessions.size() + current.users.size();
+    }
+
+    private record UserEpoch(long issuedBeforeMillis, long expiresAtMillis) {
+
+        UserEpoch max(UserEpoch other) {
+            return new UserEpoch(Math.max(issuedBeforeMillis, other.issuedBeforeMillis),
+                    Math.max(expiresAtMillis, other.expiresAtMillis));
+        }
+    }
+
+    private static final class State {
+
+        private final AtomicLongArray filter;
+        private final int mask;
+        private final Map<String, Long> tokens = new ConcurrentHashMap<>();
+        private final Map<UUID, Long> sessions = new ConcurrentHashMap<>();
+        private final Map<UUID, UserEpoch> users = new ConcurrentHashMap<>();
+
+        State(int bits) {
+            this.filter = new AtomicLongArray(bits >>> 6);
+            this.mask = bits - 1;
+        }
+
+        void add(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            for (int i = 0; i < PROBES; i++) {
+                int bit = (h1 + i * h2) & mask;
+                long flag = 1L << bit;
+                long word;
+                do {
+                    word = filter.get(bit >>> 6);
+                } while ((word & flag) == 0 && !filter.compareAndSet(bit >>> 6, word, word | flag));
+            }
+        }
+
+        boolean mightContain(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            for (int i = 0; i < PROBES; i++) {
+                int bit = (h1 + i * h2) & mask;
+                if ((filter.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long hash(UUID value) {
+        return mix(value.getMostSignificantBits() * 31 + value.getLeastSignificantBits() ^ USER_SEED);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,14 @@
+package passvault.authservice.security;
+
+import io.jsonwebtoken.JwtException;
+
+/**
+ * Thrown for a correctly signed, unexpired token that is on the
+ * {@link RevocationList}.
+ */
+public class RevokedTokenException extends JwtException {
+
+    public RevokedTokenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,268 @@
+package passvault.authservice.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import passvault.authservice.config.JwtSigningProperties;
+import passvault.authservice.config.JwtSigningProperties.Algorithm;
+import passvault.authservice.model.SigningKey;
+import passvault.authservice.repository.SigningKeyRepository;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rotating set of asymmetric signing keys shared by all auth-service
+ * instances through the signing_keys table.
+ * <p>
+ * A successor key is generated and published {@code publish-ahead} before the
+ * current key retires, and a retired key stays published for
+ * {@code verification-overlap}, so verifiers that cache the key set always
+ * know every key a live token can be signed with.
+ */
+@Component
+public class SigningKeyRing {
+
+    private static final Logger logger = LoggerFactory.getLogger(SigningKeyRing.class);
+
+    private static final int IV_LENGTH = 12;
+    private static final long MIN_RELOAD_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final SigningKeyRepository signingKeyRepository;
+    private final JwtSigningProperties properties;
+    private final SecretKey keyEncryptionKey;
+    private final SecureRandom random = new SecureRandom();
+    private final AtomicLong lastReloadNanos = new AtomicLong(System.nanoTime() - MIN_RELOAD_INTERVAL_NANOS);
+
+    private volatile Snapshot snapshot = new Snapshot(List.of(), Map.of(), Map.of("keys", List.of()));
+
+    public SigningKeyRing(SigningKeyRepository signingKeyRepository, JwtSigningProperties properties,
+                          @Value("${jwt.secret}") String jwtSecret) {
+        this.signingKeyRepository = signingKeyRepository;
+        this.properties = properties;
+        String secret = StringUtils.hasText(properties.getKeyEncryptionSecret())
+                ? properties.getKeyEncryptionSecret() : jwtSecret;
+        this.keyEncryptionKey = deriveKey(secret);
+    }
+
+    public record ActiveKey(String kid, PrivateKey privateKey, SignatureAlgorithm algorithm,
+                            Instant activatesAt, Instant retiresAt) {
+    }
+
+    private record Snapshot(List<ActiveKey> signingKeys, Map<String, PublicKey> verificationKeys,
+                            Map<String, Object> jwks) {
+    }
+
+    @PostConstruct
+    void init() {
+        refresh();
+    }
+
+    /**
+     * Loads the key table, drops expired keys and generates a new key when the
+     * current one is missing, uses another algorithm or is about to retire.
+     */
+    @Scheduled(initialDelayString = "${jwt.signing.refresh-interval:PT1M}",
+            fixedDelayString = "${jwt.signing.refresh-interval:PT1M}")
+    public synchronized void refresh() {
+        lastReloadNanos.set(System.nanoTime());
+        Instant now = Instant.now();
+        List<SigningKey> keys = new ArrayList<>(signingKeyRepository.findAll());
+
+        List<SigningKey> expired = keys.stream().filter(key -> !key.getExpiresAt().isAfter(now)).toList();
+        if (!expired.isEmpty()) {
+            signingKeyRepository.deleteAll(expired);
+            keys.removeAll(expired);
+        }
+
+        Algorithm algorithm = properties.getAlgorithm();
+        if (algorithm != Algorithm.HS256) {
+            SigningKey current = keys.stream()
+                    .filter(key -> key.getAlgorithm().equals(algorithm.name()))
+                    .filter(key -> !key.getActivatesAt().isAfter(now) && key.getRetiresAt().isAfter(now))
+                    .max(Comparator.comparing(SigningKey::getActivatesAt))
+                    .orElse(null);
+            if (current == null) {
+                keys.add(generate(algorithm, now, now));
+            } else if (!now.isBefore(current.getRetiresAt().minus(properties.getPublishAhead()))
+                    && keys.stream().noneMatch(key -> key.getAlgorithm().equals(algorithm.name())
+                            && key.getActivatesAt().isAfter(current.getActivatesAt()))) {
+                keys.add(generate(algorithm, current.getRetiresAt(), now));
+            }
+        }
+
+        snapshot = buildSnapshot(keys, algorithm);
+    }
+
+    /**
+     * Returns the key that signs tokens right now, or null when tokens are
+     * signed with the shared HMAC secret.
+     */
+    public ActiveKey currentSigningKey() {
+        Instant now = Instant.now();
+        ActiveKey current = null;
+        for (ActiveKey key : snapshot.signingKeys()) {
+            if (!key.activatesAt().isAfter(now) && key.retiresAt().isAfter(now)
+                    && (current == null || key.activatesAt().isAfter(current.activatesAt()))) {
+                current = key;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Returns the public key for the given kid. Unknown kids trigger a reload,
+     * at most once every few seconds, in case another instance has just
+     * generated the key.
+     */
+    public PublicKey findVerificationKey(String kid) {
+        PublicKey key = snapshot.verificationKeys().get(kid);
+        if (key == null && reloadIfStale()) {
+            key = snapshot.verificationKeys().get(kid);
+        }
+        return key;
+    }
+
+    /**
+     * The published key set in JWKS format: upcoming, current and recently
+     * retired keys.
+     */
+    public Map<String, Object> jwks() {
+        return snapshot.jwks();
+    }
+
+    private boolean reloadIfStale() {
+        long last = lastReloadNanos.get();
+        if (System.nanoTime() - last < MIN_RELOAD_INTERVAL_NANOS
+                || !lastReloadNanos.compareAndSet(last, System.nanoTime())) {
+            return false;
+        }
+        refresh();
+        return true;
+    }
+
+    private SigningKey generate(Algorithm algorithm, Instant activatesAt, Instant now) {
+        KeyPair keyPair = switch (algorithm) {
+            case ES256 -> Jwts.SIG.ES256.keyPair().build();
+            case EdDSA -> Jwks.CRV.Ed25519.keyPair().build();
+            case HS256 -> throw new IllegalArgumentException("HS256 tokens are signed with jwt.secret");
+        };
+        Instant retiresAt = activatesAt.plus(properties.getRotationInterval());
+        SigningKey key = new SigningKey(
+                UUID.randomUUID().toString(),
+                algorithm.name(),
+                keyPair.getPublic().getEncoded(),
+                encrypt(keyPair.getPrivate().getEncoded()),
+                now,
+                activatesAt,
+                retiresAt,
+                retiresAt.plus(properties.getVerificationOverlap())
+        );
+        signingKeyRepository.save(key);
+        logger.info("Generated {} signing key {} active from {}", algorithm, key.getKid(), activatesAt);
+        return key;
+    }
+
+    private Snapshot buildSnapshot(List<SigningKey> keys, Algorithm algorithm) {
+        List<ActiveKey> signingKeys = new ArrayList<>();
+        Map<String, PublicKey> verificationKeys = new HashMap<>();
+        List<Map<String, ?>> published = new ArrayList<>();
+        for (SigningKey key : keys) {
+            try {
+                Algorithm keyAlgorithm = Algorithm.valueOf(key.getAlgorithm());
+                PublicKey publicKey = keyFactory(keyAlgorithm)
+                        .generatePublic(new X509EncodedKeySpec(key.getPublicKey()));
+                verificationKeys.put(key.getKid(), publicKey);
+                published.add(Jwks.builder()
+                        .key(publicKey)
+                        .id(key.getKid())
+                        .algorithm(keyAlgorithm.name())
+                        .publicKeyUse("sig")
+                        .build());
+                if (keyAlgorithm == algorithm) {
+                    PrivateKey privateKey = keyFactory(keyAlgorithm)
+                            .generatePrivate(new PKCS8EncodedKeySpec(decrypt(key.getPrivateKey())));
+                    signingKeys.add(new ActiveKey(key.getKid(), privateKey, signatureAlgorithm(keyAlgorithm),
+                            key.getActivatesAt(), key.getRetiresAt()));
+                }
+            } catch (GeneralSecurityException | IllegalArgumentException e) {
+                logger.warn("Skipping unreadable signing key {}: {}", key.getKid(), e.getMessage());
+            }
+        }
+        return new Snapshot(List.copyOf(signingKeys), Map.copyOf(verificationKeys),
+                Map.of("keys", List.copyOf(published)));
+    }
+
+    private static SignatureAlgorithm signatureAlgorithm(Algorithm algorithm) {
+        return switch (algorithm) {
+            case ES256 -> Jwts.SIG.ES256;
+            case EdDSA -> Jwts.SIG.EdDSA;
+            case HS256 -> throw new IllegalArgumentException("HS256 is not an asymmetric algorithm");
+        };
+    }
+
+    private static KeyFactory keyFactory(Algorithm algorithm) throws GeneralSecurityException {
+        return switch (algorithm) {
+            case ES256 -> KeyFactory.getInstance("EC");
+            case EdDSA -> KeyFactory.getInstance("Ed25519");
+            case HS256 -> throw new IllegalArgumentException("HS256 is not an asymmetric algorithm");
+        };
+    }
+
+    private byte[] encrypt(byte[] plaintext) {
+        try {
+            byte[] iv = new byte[IV_LENGTH];
+            random.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, keyEncryptionKey, new GCMParameterSpec(128, iv));
+            byte[] ciphertext = cipher.doFinal(plaintext);
+            return ByteBuffer.allocate(IV_LENGTH + ciphertext.length).put(iv).put(ciphertext).array();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not encrypt signing key", e);
+        }
+    }
+
+    private byte[] decrypt(byte[] sealed) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, keyEncryptionKey, new GCMParameterSpec(128, sealed, 0, IV_LENGTH));
+        return cipher.doFinal(sealed, IV_LENGTH, sealed.length - IV_LENGTH);
+    }
+
+    private static SecretKey deriveKey(String secret) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(Decoders.BASE64.decode(secret));
+            return new SecretKeySpec(digest, "AES");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package passvault.authservice.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free sliding window counter. Keeps the counts of the current and the
+ * previous fixed window in one long and estimates the sliding count as the
+ * current count plus the part of the previous window that still overlaps.
+ * Counts saturate at 65535.
+ */
+final class SlidingWindowCounter {
+
+    private static final int MAX_COUNT = 0xFFFF;
+
+    private final AtomicLong state = new AtomicLong();
+
+    /**
+     * Counts one more event unless the sliding count has already reached
+     * the limit. Check and increment are one compare-and-set, so concurrent
+     * callers cannot all pass the same check.
+     *
+     * @param window  index of the current fixed window
+     * @param elapsed fraction of the current window that has elapsed
+     * @return false, without counting, if the limit is reached
+     */
+    boolean tryIncrement(long window, double elapsed, int limit) {
+        long current;
+        long next;
+        do {
+            current = state.get();
+            next = roll(current, window);
+            if (estimate(next, elapsed) >= limit) {
+                return false;
+            }
+            int count = count(next);
+            if (count < MAX_COUNT) {
+                next = pack(window, previous(next), count + 1);
+            }
+        } while (!state.compareAndSet(current, next));
+        return true;
+    }
+
+    /**
+     * Takes back an increment made in the same window, if any.
+     */
+    void decrement(long window) {
+        long current;
+        long next;
+        do {
+            current = state.get();
+            if (epoch(current) != (int) window || count(current) == 0) {
+                return;
+            }
+            next = current - 1;
+        } while (!state.compareAndSet(current, next));
+    }
+
+    private static double estimate(long rolled, double elapsed) {
+        return previous(rolled) * (1 - elapsed) + count(rolled);
+    }
+
+    private static long roll(long state, long window) {
+        int epoch = epoch(state);
+        if (epoch == (int) window) {
+            return state;
+        }
+        int previous = epoch == (int) (window - 1) ? count(state) : 0;
+        return pack(window, previous, 0);
+    }
+
+    private static long pack(long window, int previous, int count) {
+        return (window << 32) | ((long) previous << 16) | count;
+    }
+
+    private static int epoch(long state) {
+        return (int) (state >>> 32);
+    }
+
+    private static int previous(long state) {
+        return (int) (state >>> 16) & MAX_COUNT;
+    }
+
+    private static int count(long state) {
+        return (int) state & MAX_COUNT;
+    }
+}
@@ -0,0 +1,17 @@
+package passvault.authservice.security;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Immutable view of a verified access token. Produced by
+ * {@link JwtTokenProvider#parseToken(String)} after a single signature check.
+ */
+public record TokenClaims(UUID userId, String username, String email, Set<String> roles, Instant expiresAt,
+                          String tokenId, UUID sessionId, Instant issuedAt) {
+
+    public TokenClaims {
+        roles = roles == null ? Set.of() : Set.copyOf(roles);
+    }
+}
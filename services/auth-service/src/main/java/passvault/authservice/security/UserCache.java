@@ -0,0 +1,81 @@
+package passvault.authservice.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-process cache of loaded users, keyed by id and by username.
+ * Entries are immutable {@link UserPrincipal} snapshots, never managed
+ * entities. {@link UserCacheInvalidator} evicts a user whenever the row
+ * changes. The TTL bounds staleness for changes made through another
+ * instance.
+ */
+@Component
+public class UserCache {
+
+    private final Cache<UUID, UserPrincipal> byId;
+    private final Cache<String, UserPrincipal> byUsername;
+
+    public UserCache(MeterRegistry meterRegistry,
+                     @Value("${user-cache.ttl:PT5M}") Duration ttl,
+                     @Value("${user-cache.max-size:10000}") long maxSize) {
+        this.byId = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        this.byUsername = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "users.by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, byUsername, "users.by-username");
+    }
+
+    public UserPrincipal getByUsername(String username, Supplier<UserPrincipal> loader) {
+        UserPrincipal user = byUsername.getIfPresent(username);
+        if (user == null) {
+            user = loader.get();
+            put(user);
+        }
+        return user;
+    }
+
+    public UserPrincipal getById(UUID id, Supplier<UserPrincipal> loader) {
+        UserPrincipal user = byId.getIfPresent(id);
+        if (user == null) {
+            user = loader.get();
+            put(user);
+        }
+        return user;
+    }
+
+    public void put(UserPrincipal user) {
+        byId.put(user.getId(), user);
+        byUsername.put(user.getUsername(), user);
+    }
+
+    /**
+     * Removes the user under its id and under the username it was cached
+     * with, which may differ from the current one after a rename.
+     */
+    public void evict(UUID id, String username) {
+        UserPrincipal cached = byId.getIfPresent(id);
+        byId.invalidate(id);
+        if (cached != null) {
+            byUsername.invalidate(cached.getUsername());
+        }
+        if (username != null) {
+            byUsername.invalidate(username);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package passvault.authservice.security;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import passvault.authservice.model.User;
+
+import java.util.UUID;
+
+/**
+ * JPA listener on {@link User} that keeps {@link UserCache} and
+ * {@link UserStatusCache} in line with the table. Entries are evicted at
+ * flush and again after commit, so a concurrent reader cannot re-cache the
+ * pre-commit row.
+ * <p>
+ * Hibernate creates this listener while the EntityManagerFactory is being
+ * built, before the repositories the caches depend on exist, so the caches
+ * are looked up on first use.
+ */
+@Component
+public class UserCacheInvalidator {
+
+    private final ObjectProvider<UserCache> userCache;
+    private final ObjectProvider<UserStatusCache> userStatusCache;
+
+    public UserCacheInvalidator(ObjectProvider<UserCache> userCache, ObjectProvider<UserStatusCache> userStatusCache) {
+        this.userCache = userCache;
+        this.userStatusCache = userStatusCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(User user) {
+        UUID id = user.getId();
+        String username = user.getUsername();
+        evict(id, username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(id, username);
+                }
+            });
+        }
+    }
+
+    private void evict(UUID id, String username) {
+        userCache.getObject().evict(id, username);
+        userStatusCache.getObject().evict(id);
+    }
+}
@@ -36,6 +36,25 @@ public class UserPrincipal implements UserDetails {
         );
     }
 
+    /**
+     * Builds a principal from verified token claims without touching the
+     * database. The password is not known and the account is assumed enabled.
+     */
+    public static UserPrincipal create(TokenClaims claims) {
+        Collection<GrantedAuthority> authorities = claims.roles().stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+
+        return new UserPrincipal(
+                claims.userId(),
+                claims.username(),
+                claims.email(),
+                null,
+                true,
+                authorities
+        );
+    }
+
     public UUID getId() {
         return id;
     }
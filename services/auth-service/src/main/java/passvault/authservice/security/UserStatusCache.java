@@ -0,0 +1,48 @@
+package passvault.authservice.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import passvault.authservice.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Short-lived in-memory copy of each user's enabled flag, used when requests
+ * are authenticated from token claims alone. A disabled account is locked out
+ * within one TTL; evict the user to make it immediate.
+ */
+@Component
+public class UserStatusCache {
+
+    private final UserRepository userRepository;
+    private final Cache<UUID, Boolean> enabled;
+
+    public UserStatusCache(UserRepository userRepository, MeterRegistry meterRegistry,
+                           @Value("${jwt.authentication.enabled-check-ttl:PT30S}") Duration ttl,
+                           @Value("${jwt.authentication.enabled-check-max-size:100000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.enabled = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, enabled, "user.status");
+    }
+
+    public boolean isEnabled(UUID userId) {
+        return enabled.get(userId, id -> userRepository.findEnabledById(id).orElse(false));
+    }
+
+    public void put(UUID userId, boolean isEnabled) {
+        enabled.put(userId, isEnabled);
+    }
+
+    public void evict(UUID userId) {
+        enabled.invalidate(userId);
+    }
+}
@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -12,14 +13,18 @@ import passvault.authservice.dto.*;
 import passvault.authservice.event.EventPublisher;
 import passvault.authservice.exception.TokenRefreshException;
 import passvault.authservice.exception.UserAlreadyExistsException;
-import passvault.authservice.model.RefreshToken;
 import passvault.authservice.model.Role;
 import passvault.authservice.model.User;
 import passvault.authservice.repository.UserRepository;
+import passvault.authservice.security.CustomUserDetailsService;
 import passvault.authservice.security.JwtTokenProvider;
+import passvault.authservice.security.LoginThrottle;
+import passvault.authservice.security.TokenClaims;
 import passvault.authservice.security.UserPrincipal;
+import passvault.authservice.security.UserStatusCache;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
@@ -33,6 +38,10 @@ public class AuthService {
     private final JwtTokenProvider tokenProvider;
     private final RefreshTokenService refreshTokenService;
     private final EventPublisher eventPublisher;
+    private final BatchTokenValidator batchTokenValidator;
+    private final UserStatusCache userStatusCache;
+    private final LoginThrottle loginThrottle;
+    private final CustomUserDetailsService userDetailsService;
 
     @Transactional
     public AuthResponse register(RegisterRequest request) {
@@ -71,12 +80,12 @@ public class AuthService {
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
         // Generate tokens
-        String accessToken = tokenProvider.generateAccessToken(authentication);
-        RefreshToken refreshToken = refreshTokenService.createRefreshToken(user);
+        RefreshTokenService.Session session = refreshTokenService.createRefreshToken(user);
+        String accessToken = tokenProvider.generateAccessToken(authentication, session.sessionId());
 
         return new AuthResponse(
                 accessToken,
-                refreshToken.getToken(),
+                session.refreshToken(),
                 tokenProvider.getAccessTokenExpiration(),
                 user.getUsername()
         );
@@ -87,60 +96,96 @@ public class AuthService {
     }
 
     public AuthResponse login(LoginRequest request, String ipAddress) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
-        );
+        // Rejected here, before the password is hashed. Only wrong credentials
+        // keep counting against the username and IP.
+        loginThrottle.acquire(request.getUsername(), ipAddress);
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
+            );
+        } catch (AuthenticationException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            loginThrottle.release(request.getUsername(), ipAddress);
+            throw e;
+        }
+        loginThrottle.release(request.getUsername(), ipAddress);
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
+        // The principal was just loaded (or served from UserCache) by the
+        // authentication provider; the refresh token only needs the user's id
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-        User user = userRepository.findByUsername(userPrincipal.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = userRepository.getReferenceById(userPrincipal.getId());
+        userStatusCache.put(userPrincipal.getId(), userPrincipal.isEnabled());
 
         // Generate tokens
-        String accessToken = tokenProvider.generateAccessToken(authentication);
-        RefreshToken refreshToken = refreshTokenService.createRefreshToken(user);
+        RefreshTokenService.Session session = refreshTokenService.createRefreshToken(user);
+        String accessToken = tokenProvider.generateAccessToken(authentication, session.sessionId());
 
 
         return new AuthResponse(
                 accessToken,
-                refreshToken.getToken(),
+                session.refreshToken(),
                 tokenProvider.getAccessTokenExpiration(),
-                user.getUsername()
+                userPrincipal.getUsername()
         );
     }
 
+    /**
+     * Ends the session the presented access token belongs to. Tokens issued
+     * before sessions were carried in the token have no sid and end every
+     * session of the user instead.
+     */
     @Transactional
-    public MessageResponse logout(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        refreshTokenService.revokeAllUserTokens(user);
+    public MessageResponse logout(UUID userId, String accessToken) {
+        UUID sessionId = tokenProvider.verifyToken(accessToken)
+                .filter(claims -> userId.equals(claims.userId()))
+                .map(TokenClaims::sessionId)
+                .orElse(null);
+        if (sessionId != null) {
+            refreshTokenService.revokeSession(sessionId);
+        } else {
+            refreshTokenService.revokeAllUserTokens(userRepository.getReferenceById(userId));
+        }
         SecurityContextHolder.clearContext();
-        
+
         return MessageResponse.success("Successfully logged out");
     }
 
+    /**
+     * Ends every session of the user, on all devices.
+     */
     @Transactional
+    public MessageResponse logoutEverywhere(UUID userId) {
+        // Only the id is needed for the revoke query, so skip loading the user
+        User user = userRepository.getReferenceById(userId);
+
+        refreshTokenService.revokeAllUserTokens(user);
+        SecurityContextHolder.clearContext();
+
+        return MessageResponse.success("Successfully logged out of all sessions");
+    }
+
+    @Transactional(noRollbackFor = TokenRefreshException.class)
     public AuthResponse refreshToken(RefreshTokenRequest request) {
         String requestRefreshToken = request.getRefreshToken();
-        
-        return refreshTokenService.findByToken(requestRefreshToken)
-                .map(refreshTokenService::verifyExpiration)
-                .map(RefreshToken::getUser)
-                .map(user -> {
-                    UserPrincipal userPrincipal = UserPrincipal.create(user);
-                    String accessToken = tokenProvider.generateAccessToken(userPrincipal);
-                    
-                    return new AuthResponse(
-                            accessToken,
-                            requestRefreshToken,
-                            tokenProvider.getAccessTokenExpiration(),
-                            user.getUsername()
-                    );
-                })
-                .orElseThrow(() -> new TokenRefreshException(requestRefreshToken, 
-                        "Refresh token is not in database"));
+        RefreshTokenService.Session session = refreshTokenService.rotate(requestRefreshToken);
+
+        UserPrincipal userPrincipal = (UserPrincipal) userDetailsService.loadUserById(session.userId());
+        if (!userPrincipal.isEnabled()) {
+            refreshTokenService.revokeAllUserTokens(userRepository.getReferenceById(session.userId()));
+            throw new TokenRefreshException(requestRefreshToken, "User account is disabled");
+        }
+        String accessToken = tokenProvider.generateAccessToken(userPrincipal, session.sessionId());
+
+        return new AuthResponse(
+                accessToken,
+                session.refreshToken(),
+                tokenProvider.getAccessTokenExpiration(),
+                userPrincipal.getUsername()
+        );
     }
 
     public TokenValidationResponse validateToken(String token) {
@@ -152,16 +197,12 @@ public class AuthService {
             token = token.substring(7);
         }
 
-        if (!tokenProvider.validateToken(token)) {
-            return new TokenValidationResponse(false, "Token is invalid or expired");
-        }
-
-        String username = tokenProvider.getUsernameFromToken(token);
-        UUID userId = tokenProvider.getUserIdFromToken(token);
-        String rolesString = tokenProvider.getRolesFromToken(token);
-        
-        Set<String> roles = Set.of(rolesString.split(","));
+        return tokenProvider.verifyToken(token)
+                .map(claims -> new TokenValidationResponse(claims))
+                .orElseGet(() -> new TokenValidationResponse(false, "Token is invalid or expired"));
+    }
 
-        return new TokenValidationResponse(true, username, userId, roles);
+    public List<TokenValidationResponse> validateTokens(List<String> tokens) {
+        return batchTokenValidator.validate(tokens);
     }
 }
@@ -0,0 +1,74 @@
+package passvault.authservice.service;
+
+import io.jsonwebtoken.JwtException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import passvault.authservice.dto.TokenValidationResponse;
+import passvault.authservice.security.JwtTokenProvider;
+import passvault.authservice.security.TokenClaims;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Validates many tokens in one call. Large batches are split across a
+ * dedicated pool, sized to the number of cores by default, so signature
+ * checks never compete with the common pool or with request threads beyond
+ * the caller's own. Results keep the order of the input.
+ */
+@Service
+public class BatchTokenValidator implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchTokenValidator.class);
+
+    private final JwtTokenProvider tokenProvider;
+    private final ForkJoinPool pool;
+    private final int sequentialThreshold;
+
+    public BatchTokenValidator(JwtTokenProvider tokenProvider,
+                               @Value("${jwt.validation.batch-parallelism:0}") int parallelism,
+                               @Value("${jwt.validation.batch-sequential-threshold:16}") int sequentialThreshold) {
+        this.tokenProvider = tokenProvider;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.sequentialThreshold = sequentialThreshold;
+    }
+
+    public List<TokenValidationResponse> validate(List<String> tokens) {
+        List<TokenValidationResponse> responses = tokens.size() < sequentialThreshold
+                ? tokens.stream().map(this::validate).toList()
+                : pool.submit(() -> tokens.parallelStream().map(this::validate).toList()).join();
+
+        if (logger.isDebugEnabled()) {
+            long invalid = responses.stream().filter(response -> !response.isValid()).count();
+            logger.debug("Validated {} tokens, {} invalid", responses.size(), invalid);
+        }
+        return responses;
+    }
+
+    /**
+     * Same checks as {@link AuthService#validateToken(String)}, without logging
+     * each failure.
+     */
+    private TokenValidationResponse validate(String token) {
+        if (token == null || token.isEmpty()) {
+            return new TokenValidationResponse(false, "Token is missing");
+        }
+        if (token.startsWith("Bearer ")) {
+            token = token.substring(7);
+        }
+        try {
+            TokenClaims claims = tokenProvider.parseToken(token);
+            return new TokenValidationResponse(claims);
+        } catch (JwtException | IllegalArgumentException e) {
+            return new TokenValidationResponse(false, "Token is invalid or expired");
+        }
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdown();
+    }
+}
@@ -1,71 +1,183 @@
 package passvault.authservice.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import passvault.authservice.exception.TokenRefreshException;
 import passvault.authservice.model.RefreshToken;
+import passvault.authservice.model.RefreshToken.RevocationReason;
 import passvault.authservice.model.User;
 import passvault.authservice.repository.RefreshTokenRepository;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
 import java.time.Instant;
-import java.util.Optional;
+import java.util.Base64;
 import java.util.UUID;
 
 @Service
 public class RefreshTokenService {
 
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+    private static final int TOKEN_BYTES = 32;
+
     @Value("${jwt.refresh-token-expiration}")
     private Long refreshTokenDurationMs;
 
+    @Value("${jwt.refresh-token-purge-batch-size:1000}")
+    private int purgeBatchSize;
+
+    @Value("${jwt.refresh-token-reuse-grace:PT10S}")
+    private Duration reuseGrace;
+
     private final RefreshTokenRepository refreshTokenRepository;
+    private final TokenRevocationService tokenRevocationService;
+    private final SecureRandom random = new SecureRandom();
 
-    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository) {
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               TokenRevocationService tokenRevocationService) {
         this.refreshTokenRepository = refreshTokenRepository;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
-    public Optional<RefreshToken> findByToken(String token) {
-        return refreshTokenRepository.findByToken(token);
+    /**
+     * A login session: its user, its id (the refresh token family, carried by
+     * access tokens as sid) and its current refresh token.
+     */
+    public record Session(UUID userId, UUID sessionId, String refreshToken) {
     }
 
+    /**
+     * Starts a new session for the user. Existing sessions on other devices
+     * are left alone, so this is a single insert.
+     */
     @Transactional
-    public RefreshToken createRefreshToken(User user) {
-        // Delete all existing tokens for this user
-        refreshTokenRepository.deleteByUser(user);
-        refreshTokenRepository.flush(); // Force the delete to execute before insert
+    public Session createRefreshToken(User user) {
+        UUID sessionId = UUID.randomUUID();
+        return new Session(user.getId(), sessionId,
+                issue(user, sessionId, Instant.now().plusMillis(refreshTokenDurationMs)));
+    }
 
-        RefreshToken refreshToken = new RefreshToken();
-        refreshToken.setUser(user);
-        refreshToken.setExpiryDate(Instant.now().plusMillis(refreshTokenDurationMs));
-        refreshToken.setToken(UUID.randomUUID().toString());
-        refreshToken.setRevoked(false);
+    /**
+     * Exchanges a refresh token for a new one in the same family, expiring
+     * when the family does. A token rotated within the reuse grace period,
+     * e.g. by two tabs refreshing at once, is exchanged again. One rotated
+     * earlier, e.g. stolen and replayed, revokes the family and the session's
+     * access tokens so neither party can keep using it. Tokens revoked for
+     * any other reason, such as logout, are just rejected.
+     */
+    @Transactional(noRollbackFor = TokenRefreshException.class)
+    public Session rotate(String token) {
+        RefreshToken refreshToken = refreshTokenRepository.findByTokenHash(hash(token))
+                .orElseThrow(() -> new TokenRefreshException(token, "Refresh token is not in database"));
 
-        return refreshTokenRepository.save(refreshToken);
-    }
+        Instant now = Instant.now();
+        if (refreshToken.getExpiryDate().isBefore(now)) {
+            throw new TokenRefreshException(token,
+                    "Refresh token was expired. Please make a new sign in request");
+        }
 
-    public RefreshToken verifyExpiration(RefreshToken token) {
-        if (token.isRevoked()) {
-            refreshTokenRepository.delete(token);
-            throw new TokenRefreshException(token.getToken(), 
-                    "Refresh token was revoked. Please make a new sign in request");
+        if (!refreshToken.isRevoked()
+                && refreshTokenRepository.revokeIfActive(refreshToken.getId(), RevocationReason.ROTATED, now) == 1) {
+            return replace(refreshToken);
         }
 
-        if (token.getExpiryDate().compareTo(Instant.now()) < 0) {
-            refreshTokenRepository.delete(token);
-            throw new TokenRefreshException(token.getToken(), 
-                    "Refresh token was expired. Please make a new sign in request");
+        // Revoked before this request, or by a concurrent one just now
+        RevocationReason reason = refreshToken.isRevoked() ? refreshToken.getRevocationReason()
+                : refreshTokenRepository.findRevocationReason(refreshToken.getId());
+        Instant revokedAt = refreshToken.isRevoked() ? refreshToken.getRevokedAt() : now;
+        if (reason == RevocationReason.ROTATED) {
+            if (revokedAt.plus(reuseGrace).isAfter(now)) {
+                return replace(refreshToken);
+            }
+            UUID familyId = refreshToken.getFamilyId();
+            int revoked = refreshTokenRepository.revokeFamily(familyId, RevocationReason.REUSED, now);
+            logger.warn("Refresh token reuse detected for session family {}, revoked {} token(s)",
+                    familyId, revoked);
+            tokenRevocationService.revokeSession(familyId);
         }
+        throw new TokenRefreshException(token,
+                "Refresh token was revoked. Please make a new sign in request");
+    }
 
-        return token;
+    /**
+     * Ends one session: its refresh tokens can no longer be exchanged and its
+     * access tokens are rejected. Other sessions of the user stay valid.
+     */
+    @Transactional
+    public void revokeSession(UUID sessionId) {
+        refreshTokenRepository.revokeFamily(sessionId, RevocationReason.LOGGED_OUT, Instant.now());
+        tokenRevocationService.revokeSession(sessionId);
     }
 
+    /**
+     * Ends every session of the user: refresh tokens can no longer be
+     * exchanged and access tokens issued so far are rejected.
+     */
     @Transactional
     public void revokeAllUserTokens(User user) {
-        refreshTokenRepository.revokeAllUserTokens(user);
+        refreshTokenRepository.revokeAllUserTokens(user, RevocationReason.LOGGED_OUT, Instant.now());
+        tokenRevocationService.revokeUser(user.getId());
     }
 
-    @Transactional
-    public void deleteByUser(User user) {
-        refreshTokenRepository.deleteByUser(user);
+    /**
+     * Deletes expired sessions in small batches, each in its own transaction,
+     * so the purge never holds locks on a large part of the table.
+     */
+    @Scheduled(initialDelayString = "${jwt.refresh-token-purge-interval:PT1H}",
+            fixedDelayString = "${jwt.refresh-token-purge-interval:PT1H}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = refreshTokenRepository.deleteExpired(now, purgeBatchSize);
+            total += deleted;
+        } while (deleted == purgeBatchSize);
+        if (total > 0) {
+            logger.info("Purged {} expired refresh token(s)", total);
+        }
+    }
+
+    /**
+     * Issues the successor of a token. It keeps the family's expiry: rotating
+     * does not extend the session.
+     */
+    private Session replace(RefreshToken refreshToken) {
+        User user = refreshToken.getUser();
+        return new Session(user.getId(), refreshToken.getFamilyId(),
+                issue(user, refreshToken.getFamilyId(), refreshToken.getExpiryDate()));
+    }
+
+    private String issue(User user, UUID familyId, Instant expiryDate) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setUser(user);
+        refreshToken.setFamilyId(familyId);
+        refreshToken.setTokenHash(hash(token));
+        refreshToken.setCreatedAt(Instant.now());
+        refreshToken.setExpiryDate(expiryDate);
+        refreshToken.setRevoked(false);
+        refreshTokenRepository.save(refreshToken);
+
+        return token;
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 }
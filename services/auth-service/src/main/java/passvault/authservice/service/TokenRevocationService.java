@@ -0,0 +1,151 @@
+package passvault.authservice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import passvault.authservice.event.EventPublisher;
+import passvault.authservice.event.TokenRevokedEvent;
+import passvault.authservice.model.TokenRevocation;
+import passvault.authservice.repository.TokenRevocationRepository;
+import passvault.authservice.security.RevocationList;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Records access token revocations and spreads them to every verifier.
+ * A revocation is stored, then applied locally and broadcast on the
+ * token.revocations exchange once the transaction commits. Verifiers also
+ * reload the stored list periodically, which covers instances that were
+ * down or missed an event while the broker was unavailable.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    @Value("${jwt.access-token-expiration}")
+    private long accessTokenExpiration;
+
+    private final TokenRevocationRepository tokenRevocationRepository;
+    private final RevocationList revocationList;
+    private final EventPublisher eventPublisher;
+
+    public TokenRevocationService(TokenRevocationRepository tokenRevocationRepository,
+                                  RevocationList revocationList, EventPublisher eventPublisher) {
+        this.tokenRevocationRepository = tokenRevocationRepository;
+        this.revocationList = revocationList;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Revokes every access token of the user issued up to now.
+     */
+    @Transactional
+    public void revokeUser(UUID userId) {
+        Instant now = Instant.now();
+        TokenRevocation revocation = new TokenRevocation(null, null, null, userId, now,
+                now.plusMillis(accessTokenExpiration));
+        tokenRevocationRepository.save(revocation);
+        broadcastAfterCommit(toEvent(revocation));
+    }
+
+    /**
+     * Revokes one access token by its jti. The entry is kept for a full
+     * access token lifetime, which covers the token whenever it was issued.
+     */
+    @Transactional
+    public void revokeToken(String tokenId) {
+        TokenRevocation revocation = new TokenRevocation(null, tokenId, null, null, null,
+                Instant.now().plusMillis(accessTokenExpiration));
+        tokenRevocationRepository.save(revocation);
+        broadcastAfterCommit(toEvent(revocation));
+    }
+
+    /**
+     * Revokes every access token issued for the login session.
+     */
+    @Transactional
+    public void revokeSession(UUID sessionId) {
+        TokenRevocation revocation = new TokenRevocation(null, null, sessionId, null, null,
+                Instant.now().plusMillis(accessTokenExpiration));
+        tokenRevocationRepository.save(revocation);
+        broadcastAfterCommit(toEvent(revocation));
+    }
+
+    public void apply(TokenRevokedEvent event) {
+        long expiresAt = event.getExpiresAt().toEpochMilli();
+        if (event.getTokenId() != null) {
+            revocationList.revokeToken(event.getTokenId(), expiresAt);
+        }
+        if (event.getSessionId() != null) {
+            revocationList.revokeSession(UUID.fromString(event.getSessionId()), expiresAt);
+        }
+        if (event.getUserId() != null && event.getIssuedBefore() != null) {
+            revocationList.revokeUser(UUID.fromString(event.getUserId()),
+                    event.getIssuedBefore().toEpochMilli(), expiresAt);
+        }
+    }
+
+    /**
+     * Revocations still in effect, for verifiers loading the list on startup.
+     */
+    @Transactional(readOnly = true)
+    public List<TokenRevokedEvent> activeRevocations() {
+        return tokenRevocationRepository.findByExpiresAtAfter(Instant.now()).stream()
+                .map(TokenRevocationService::toEvent)
+                .toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${jwt.revocation.resync-interval:PT1M}",
+            fixedDelayString = "${jwt.revocation.resync-interval:PT1M}")
+    public void resync() {
+        Instant now = Instant.now();
+        tokenRevocationRepository.deleteExpired(now);
+        activeRevocations().forEach(this::apply);
+        revocationList.purgeExpired(now.toEpochMilli());
+    }
+
+    private void broadcastAfterCommit(TokenRevokedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            broadcast(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                broadcast(event);
+            }
+        });
+    }
+
+    private void broadcast(TokenRevokedEvent event) {
+        apply(event);
+        try {
+            eventPublisher.publishTokenRevoked(event);
+        } catch (AmqpException e) {
+            logger.warn("Could not broadcast token revocation, other verifiers pick it up on their next resync: {}",
+                    e.getMessage());
+        }
+    }
+
+    private static TokenRevokedEvent toEvent(TokenRevocation revocation) {
+        return TokenRevokedEvent.builder()
+                .tokenId(revocation.getTokenId())
+                .sessionId(revocation.getSessionId() != null ? revocation.getSessionId().toString() : null)
+                .userId(revocation.getUserId() != null ? revocation.getUserId().toString() : null)
+                .issuedBefore(revocation.getIssuedBefore())
+                .expiresAt(revocation.getExpiresAt())
+                .build();
+    }
+}
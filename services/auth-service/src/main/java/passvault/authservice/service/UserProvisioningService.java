@@ -0,0 +1,175 @@
+package passvault.authservice.service;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import passvault.authservice.dto.ProvisioningResponse;
+import passvault.authservice.dto.RegisterRequest;
+import passvault.authservice.event.EventPublisher;
+import passvault.authservice.model.Role;
+import passvault.authservice.model.User;
+import passvault.authservice.repository.UserRepository;
+import passvault.authservice.security.BoundedPasswordEncoder;
+import passvault.authservice.service.UserRecordReader.UserRecord;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Creates users in bulk from a streamed NDJSON or CSV list. Records are
+ * processed in chunks: one query each for taken usernames and emails,
+ * passwords hashed in parallel on the shared hashing pool, then one
+ * transaction that batch-inserts the users and their outbox events.
+ * <p>
+ * Each chunk commits on its own, so a failed import can simply be sent
+ * again: users created the first time are reported as taken.
+ */
+@Slf4j
+@Service
+public class UserProvisioningService {
+
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    @Value("${provisioning.chunk-size:500}")
+    private int chunkSize;
+
+    private final UserRepository userRepository;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final EventPublisher eventPublisher;
+    private final Validator validator;
+    private final JsonMapper jsonMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    public UserProvisioningService(UserRepository userRepository, BoundedPasswordEncoder passwordEncoder,
+                                   EventPublisher eventPublisher, Validator validator, JsonMapper jsonMapper,
+                                   PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
+        this.validator = validator;
+        this.jsonMapper = jsonMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public ProvisioningResponse provision(InputStream body, Format format) {
+        UserRecordReader reader = new UserRecordReader(
+                new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8)), format, jsonMapper);
+        ProvisioningResponse response = new ProvisioningResponse();
+        Set<String> seenUsernames = new HashSet<>();
+        Set<String> seenEmails = new HashSet<>();
+        List<UserRecord> chunk = new ArrayList<>(chunkSize);
+
+        UserRecord record;
+        while ((record = reader.next()) != null) {
+            response.setReceived(response.getReceived() + 1);
+            String error = validate(record, seenUsernames, seenEmails);
+            if (error != null) {
+                reject(response, record, error);
+                continue;
+            }
+            chunk.add(record);
+            if (chunk.size() == chunkSize) {
+                provisionChunk(chunk, response);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            provisionChunk(chunk, response);
+        }
+
+        log.info("Provisioned {} of {} user(s), {} rejected",
+                response.getCreated(), response.getReceived(), response.getRejected());
+        return response;
+    }
+
+    /**
+     * Checks one record on its own and against earlier records of the same
+     * import; the database is checked per chunk.
+     */
+    private String validate(UserRecord record, Set<String> seenUsernames, Set<String> seenEmails) {
+        if (record.error() != null) {
+            return record.error();
+        }
+        Set<ConstraintViolation<RegisterRequest>> violations = validator.validate(record.request());
+        if (!violations.isEmpty()) {
+            return violations.iterator().next().getMessage();
+        }
+        if (!seenUsernames.add(record.request().getUsername())) {
+            return "Username appears more than once in this import";
+        }
+        if (!seenEmails.add(record.request().getEmail())) {
+            return "Email appears more than once in this import";
+        }
+        return null;
+    }
+
+    private void provisionChunk(List<UserRecord> chunk, ProvisioningResponse response) {
+        Set<String> takenUsernames = userRepository.findExistingUsernames(
+                chunk.stream().map(record -> record.request().getUsername()).toList());
+        Set<String> takenEmails = userRepository.findExistingEmails(
+                chunk.stream().map(record -> record.request().getEmail()).toList());
+
+        List<UserRecord> accepted = new ArrayList<>(chunk.size());
+        for (UserRecord record : chunk) {
+            if (takenUsernames.contains(record.request().getUsername())) {
+                reject(response, record, "Username is already taken");
+            } else if (takenEmails.contains(record.request().getEmail())) {
+                reject(response, record, "Email is already in use");
+            } else {
+                accepted.add(record);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        // Hash outside the transaction so no connection is held meanwhile
+        List<String> hashes = passwordEncoder.encodeAll(
+                accepted.stream().map(record -> record.request().getPassword()).toList());
+        List<User> users = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            RegisterRequest request = accepted.get(i).request();
+            User user = new User(request.getUsername(), request.getEmail(), hashes.get(i));
+            user.setRoles(new HashSet<>(Set.of(Role.ROLE_USER)));
+            users.add(user);
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                userRepository.saveAll(users);
+                userRepository.flush();
+                eventPublisher.publishUsersRegistered(users);
+            });
+            response.setCreated(response.getCreated() + users.size());
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent registration took a username or email since the check
+            log.warn("Provisioning chunk of {} user(s) conflicted with concurrent changes", users.size());
+            for (UserRecord record : accepted) {
+                reject(response, record, "Conflicted with a concurrent registration, import the record again");
+            }
+        }
+    }
+
+    private static void reject(ProvisioningResponse response, UserRecord record, String message) {
+        response.setRejected(response.getRejected() + 1);
+        if (response.getErrors().size() < ProvisioningResponse.MAX_REPORTED_ERRORS) {
+            String username = record.request() != null ? record.request().getUsername() : null;
+            response.getErrors().add(new ProvisioningResponse.RecordError(record.line(), username, message));
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package passvault.authservice.service;
+
+import passvault.authservice.dto.RegisterRequest;
+import passvault.authservice.exception.InvalidImportException;
+import passvault.authservice.service.UserProvisioningService.Format;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads user records one line at a time from an NDJSON stream (one
+ * {"username", "email", "password"} object per line) or a CSV stream whose
+ * header names the username, email and password columns. Blank lines are
+ * skipped; CSV fields may be double-quoted, with "" for a literal quote.
+ */
+class UserRecordReader {
+
+    record UserRecord(long line, RegisterRequest request, String error) {
+    }
+
+    private final BufferedReader reader;
+    private final Format format;
+    private final JsonMapper jsonMapper;
+    private long lineNumber;
+    private int[] columns;
+
+    UserRecordReader(BufferedReader reader, Format format, JsonMapper jsonMapper) {
+        this.reader = reader;
+        this.format = format;
+        this.jsonMapper = jsonMapper;
+    }
+
+    /**
+     * Returns the next record, or null at the end of the stream. A line that
+     * cannot be parsed is returned with an error instead of a request.
+     */
+    UserRecord next() {
+        String line;
+        while ((line = readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && columns == null) {
+                readHeader(line);
+                continue;
+            }
+            return format == Format.NDJSON ? parseJson(line) : parseCsv(line);
+        }
+        return null;
+    }
+
+    private UserRecord parseJson(String line) {
+        try {
+            return new UserRecord(lineNumber, jsonMapper.readValue(line, RegisterRequest.class), null);
+        } catch (JacksonException e) {
+            return new UserRecord(lineNumber, null, "Malformed JSON record");
+        }
+    }
+
+    private UserRecord parseCsv(String line) {
+        List<String> fields = splitCsv(line);
+        if (fields == null) {
+            return new UserRecord(lineNumber, null, "Unterminated quoted field");
+        }
+        String[] values = new String[3];
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i] >= 0) {
+                if (columns[i] >= fields.size()) {
+                    return new UserRecord(lineNumber, null, "Expected at least " + (columns[i] + 1) + " fields");
+                }
+                values[i] = fields.get(columns[i]);
+            }
+        }
+        return new UserRecord(lineNumber, new RegisterRequest(values[0], values[1], values[2]), null);
+    }
+
+    private void readHeader(String line) {
+        List<String> names = splitCsv(line);
+        if (names == null) {
+            throw new InvalidImportException("CSV header is malformed");
+        }
+        columns = new int[]{-1, -1, -1};
+        for (int i = 0; i < names.size(); i++) {
+            switch (names.get(i).trim().toLowerCase(Locale.ROOT)) {
+                case "username" -> columns[0] = i;
+                case "email" -> columns[1] = i;
+                case "password" -> columns[2] = i;
+                default -> {
+                }
+            }
+        }
+        if (columns[0] < 0 || columns[1] < 0 || columns[2] < 0) {
+            throw new InvalidImportException("CSV header must name the username, email and password columns");
+        }
+    }
+
+    /**
+     * Splits one CSV line, or returns null if a quoted field is not closed.
+     */
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private String readLine() {
+        try {
+            String line = reader.readLine();
+            if (line != null) {
+                lineNumber++;
+            }
+            return line;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
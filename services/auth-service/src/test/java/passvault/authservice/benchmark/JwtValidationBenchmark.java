@@ -0,0 +1,111 @@
+package passvault.authservice.benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+import passvault.authservice.config.JwtSigningProperties;
+import passvault.authservice.repository.SigningKeyRepository;
+import passvault.authservice.security.JwtTokenProvider;
+import passvault.authservice.security.RevocationList;
+import passvault.authservice.security.SigningKeyRing;
+import passvault.authservice.security.TokenClaims;
+import passvault.authservice.security.UserPrincipal;
+
+import javax.crypto.SecretKey;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Compares token validation as AuthService used to do it (four parses, each
+ * decoding the secret and building a new parser) with a single
+ * {@link JwtTokenProvider#parseToken(String)} call on the cached parser, for
+ * each supported signing algorithm.
+ * <p>
+ * Run with: mvn -Pjmh test-compile exec:exec -Djmh.args="JwtValidationBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtValidationBenchmark {
+
+    private static final String SECRET = "cGFzc3ZhdWx0LXNlY3JldC1rZXktZm9yLWp3dC10b2tlbi1nZW5lcmF0aW9uLTI1Ni1iaXRz";
+
+    @Param({"HS256", "ES256", "EdDSA"})
+    private JwtSigningProperties.Algorithm algorithm;
+
+    private JwtTokenProvider tokenProvider;
+    private String token;
+    private String legacyToken;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JwtSigningProperties signingProperties = new JwtSigningProperties();
+        signingProperties.setAlgorithm(algorithm);
+        SigningKeyRing keyRing = new SigningKeyRing(mock(SigningKeyRepository.class), signingProperties, SECRET);
+        ReflectionTestUtils.invokeMethod(keyRing, "init");
+
+        tokenProvider = new JwtTokenProvider(keyRing, new RevocationList(1024), signingProperties);
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(tokenProvider, "accessTokenExpiration", TimeUnit.HOURS.toMillis(1));
+        ReflectionTestUtils.invokeMethod(tokenProvider, "init");
+
+        UserPrincipal principal = new UserPrincipal(UUID.randomUUID(), "alice", "alice@example.com", "n/a", true,
+                List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN")));
+        token = tokenProvider.generateAccessToken(principal, UUID.randomUUID());
+        legacyToken = Jwts.builder()
+                .subject("alice")
+                .claim("userId", principal.getId().toString())
+                .claim("roles", "ROLE_USER,ROLE_ADMIN")
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+    }
+
+    /**
+     * The old path only ever saw HS256 tokens, so it ignores the algorithm
+     * parameter.
+     */
+    @Benchmark
+    public void legacyFourParses(Blackhole blackhole) {
+        blackhole.consume(legacyParse(legacyToken));
+        blackhole.consume(legacyParse(legacyToken).getSubject());
+        blackhole.consume(UUID.fromString(legacyParse(legacyToken).get("userId", String.class)));
+        blackhole.consume(Set.of(legacyParse(legacyToken).get("roles", String.class).split(",")));
+    }
+
+    @Benchmark
+    public TokenClaims parseOnce() {
+        return tokenProvider.parseToken(token);
+    }
+
+    private static Claims legacyParse(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        return Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
@@ -2,7 +2,9 @@ package passvault.vaultservice.controller;
 
 import jakarta.validation.Valid;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -13,10 +15,15 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import passvault.vaultservice.dto.CursorPage;
+import passvault.vaultservice.dto.SecretField;
 import passvault.vaultservice.dto.VaultEntryRequest;
 import passvault.vaultservice.dto.VaultEntryResponse;
+import passvault.vaultservice.dto.VaultEntrySecrets;
+import passvault.vaultservice.dto.VaultEntrySummary;
 import passvault.vaultservice.service.VaultEntryService;
 
 @RestController
@@ -27,8 +34,35 @@ public class VaultEntryController {
   private final VaultEntryService vaultEntryService;
 
   @GetMapping
-  public List<VaultEntryResponse> listEntries(@RequestHeader("X-User-Id") UUID userId) {
-    return vaultEntryService.listEntries(userId);
+  public CursorPage<VaultEntryResponse> listEntries(@RequestHeader("X-User-Id") UUID userId,
+      @RequestParam(required = false) Integer limit,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) UUID categoryId) {
+    return vaultEntryService.listEntries(userId, limit, cursor, categoryId);
+  }
+
+  /**
+   * List view without secrets; same paging parameters as the entry listing.
+   */
+  @GetMapping("/summaries")
+  public CursorPage<VaultEntrySummary> listSummaries(@RequestHeader("X-User-Id") UUID userId,
+      @RequestParam(required = false) Integer limit,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) UUID categoryId) {
+    return vaultEntryService.listSummaries(userId, limit, cursor, categoryId);
+  }
+
+  /**
+   * Decrypts the requested fields (username, password, notes) of one entry,
+   * or all of them when none is given.
+   */
+  @GetMapping("/{id}/secrets")
+  public VaultEntrySecrets revealSecrets(@PathVariable UUID id, @RequestHeader("X-User-Id") UUID userId,
+      @RequestParam(required = false) List<String> fields) {
+    Set<SecretField> requested = fields == null ? Set.of() : fields.stream()
+        .map(SecretField::fromParam)
+        .collect(Collectors.toSet());
+    return vaultEntryService.revealSecrets(id, userId, requested);
   }
 
   @GetMapping("/{id}")
@@ -0,0 +1,16 @@
+package passvault.vaultservice.dto;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * One page of a keyset-paginated listing. nextCursor is opaque to clients and
+ * null on the last page.
+ */
+@Value
+@Builder
+public class CursorPage<T> {
+  List<T> items;
+  String nextCursor;
+}
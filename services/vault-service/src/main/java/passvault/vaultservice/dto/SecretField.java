@@ -0,0 +1,20 @@
+package passvault.vaultservice.dto;
+
+import java.util.Locale;
+
+public enum SecretField {
+  USERNAME,
+  PASSWORD,
+  NOTES;
+
+  /**
+   * @throws IllegalArgumentException for a name that is not a secret field
+   */
+  public static SecretField fromParam(String value) {
+    try {
+      return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException ex) {
+      throw new IllegalArgumentException("Unknown secret field: " + value);
+    }
+  }
+}
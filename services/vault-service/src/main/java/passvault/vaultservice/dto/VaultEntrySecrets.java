@@ -0,0 +1,17 @@
+package passvault.vaultservice.dto;
+
+import java.util.UUID;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Decrypted secrets of one entry; fields that were not requested are null.
+ */
+@Value
+@Builder
+public class VaultEntrySecrets {
+  UUID id;
+  String username;
+  String password;
+  String notes;
+}
@@ -0,0 +1,35 @@
+package passvault.vaultservice.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.Value;
+
+/**
+ * Vault entry without its secrets, for list views. Built directly by a JPQL
+ * constructor expression, so the ciphertext columns are never read.
+ */
+@Value
+public class VaultEntrySummary {
+  UUID id;
+  UUID userId;
+  String title;
+  String url;
+  CategoryResponse category;
+  LocalDateTime createdAt;
+  LocalDateTime updatedAt;
+
+  public VaultEntrySummary(UUID id, UUID userId, String title, String url, UUID categoryId, String categoryName,
+      LocalDateTime createdAt, LocalDateTime updatedAt) {
+    this.id = id;
+    this.userId = userId;
+    this.title = title;
+    this.url = url;
+    this.category = categoryId == null ? null : CategoryResponse.builder()
+        .id(categoryId)
+        .userId(userId)
+        .name(categoryName)
+        .build();
+    this.createdAt = createdAt;
+    this.updatedAt = updatedAt;
+  }
+}
@@ -1,14 +1,79 @@
 package passvault.vaultservice.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import passvault.vaultservice.dto.VaultEntrySummary;
 import passvault.vaultservice.entity.VaultEntry;
 
+/**
+ * Listing queries page by keyset in (createdAt DESC, id) order, which the
+ * idx_vault_entries_user_created index serves without sorting.
+ */
 public interface VaultEntryRepository extends JpaRepository<VaultEntry, UUID> {
 
-  List<VaultEntry> findAllByUserIdOrderByCreatedAtDesc(UUID userId);
+  String SUMMARY_SELECT = "SELECT new passvault.vaultservice.dto.VaultEntrySummary("
+      + "e.id, e.userId, e.title, e.url, c.id, c.name, e.createdAt, e.updatedAt)"
+      + " FROM VaultEntry e LEFT JOIN e.category c";
 
+  /**
+   * Entries come with their category in the same select, so building the
+   * responses does not load categories one by one.
+   */
+  String ENTRY_SELECT = "SELECT e FROM VaultEntry e LEFT JOIN FETCH e.category c";
+
+  @Query(SUMMARY_SELECT + " WHERE e.userId = :userId ORDER BY e.createdAt DESC, e.id")
+  List<VaultEntrySummary> findFirstSummaryPage(UUID userId, Limit limit);
+
+  @Query(SUMMARY_SELECT + " WHERE e.userId = :userId"
+      + " AND (e.createdAt < :createdAt OR (e.createdAt = :createdAt AND e.id > :id))"
+      + " ORDER BY e.createdAt DESC, e.id")
+  List<VaultEntrySummary> findSummaryPageAfter(UUID userId, LocalDateTime createdAt, UUID id, Limit limit);
+
+  @Query(SUMMARY_SELECT + " WHERE e.userId = :userId AND c.id = :categoryId ORDER BY e.createdAt DESC, e.id")
+  List<VaultEntrySummary> findFirstSummaryPageInCategory(UUID userId, UUID categoryId, Limit limit);
+
+  @Query(SUMMARY_SELECT + " WHERE e.userId = :userId AND c.id = :categoryId"
+      + " AND (e.createdAt < :createdAt OR (e.createdAt = :createdAt AND e.id > :id))"
+      + " ORDER BY e.createdAt DESC, e.id")
+  List<VaultEntrySummary> findSummaryPageAfterInCategory(UUID userId, UUID categoryId, LocalDateTime createdAt,
+      UUID id, Limit limit);
+
+  @Query(ENTRY_SELECT + " WHERE e.userId = :userId ORDER BY e.createdAt DESC, e.id")
+  List<VaultEntry> findFirstPage(UUID userId, Limit limit);
+
+  @Query(ENTRY_SELECT + " WHERE e.userId = :userId"
+      + " AND (e.createdAt < :createdAt OR (e.createdAt = :createdAt AND e.id > :id))"
+      + " ORDER BY e.createdAt DESC, e.id")
+  List<VaultEntry> findPageAfter(UUID userId, LocalDateTime createdAt, UUID id, Limit limit);
+
+  @Query(ENTRY_SELECT + " WHERE e.userId = :userId AND c.id = :categoryId ORDER BY e.createdAt DESC, e.id")
+  List<VaultEntry> findFirstPageInCategory(UUID userId, UUID categoryId, Limit limit);
+
+  @Query(ENTRY_SELECT + " WHERE e.userId = :userId AND c.id = :categoryId"
+      + " AND (e.createdAt < :createdAt OR (e.createdAt = :createdAt AND e.id > :id))"
+      + " ORDER BY e.createdAt DESC, e.id")
+  List<VaultEntry> findPageAfterInCategory(UUID userId, UUID categoryId, LocalDateTime createdAt, UUID id,
+      Limit limit);
+
+  @EntityGraph(attributePaths = "category")
   Optional<VaultEntry> findByIdAndUserId(UUID id, UUID userId);
+
+  /**
+   * Only the ciphertext columns of one entry, for revealing its secrets.
+   */
+  Optional<EntryCiphertexts> findCiphertextsByIdAndUserId(UUID id, UUID userId);
+
+  interface EntryCiphertexts {
+    String getUsernameEncrypted();
+
+    String getPasswordEncrypted();
+
+    String getNotesEncrypted();
+  }
 }
@@ -0,0 +1,161 @@
+package passvault.vaultservice.service;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * AES-GCM with a prebuilt key and one {@link Cipher} per thread. A sealed
+ * value is laid out as {@code iv || ciphertext || tag}; the IV is written
+ * straight into the output and read back in place, so no intermediate
+ * arrays are split off or joined.
+ * <p>
+ * IVs come from a per-thread counter that starts at a random 96-bit value,
+ * so the shared {@link SecureRandom} is only touched when a thread starts or
+ * has used up {@value #IVS_PER_SEED} IVs, not on every call.
+ */
+public final class AesGcmEngine {
+
+    public static final int IV_LENGTH = 12;
+    public static final int TAG_LENGTH = 16;
+
+    private static final String ALGORITHM = "AES/GCM/NoPadding";
+    private static final int IVS_PER_SEED = 1 << 24;
+
+    private final SecretKey key;
+    private final SecureRandom seedRandom = new SecureRandom();
+    private final ThreadLocal<Cipher> ciphers = ThreadLocal.withInitial(AesGcmEngine::newCipher);
+    private final ThreadLocal<IvCounter> ivs = ThreadLocal.withInitial(() -> new IvCounter(seedRandom));
+
+    public AesGcmEngine(byte[] keyBytes) {
+        this.key = new SecretKeySpec(keyBytes, "AES");
+    }
+
+    public static int sealedLength(int plaintextLength) {
+        return IV_LENGTH + plaintextLength + TAG_LENGTH;
+    }
+
+    public static int openedLength(int sealedLength) {
+        return sealedLength - IV_LENGTH - TAG_LENGTH;
+    }
+
+    public byte[] seal(byte[] plaintext, int offset, int length) throws GeneralSecurityException {
+        byte[] sealed = new byte[sealedLength(length)];
+        seal(plaintext, offset, length, sealed, 0);
+        return sealed;
+    }
+
+    /**
+     * Encrypts into {@code out}, which needs {@link #sealedLength(int)} bytes
+     * from {@code outOffset}.
+     *
+     * @return the number of bytes written
+     */
+    public int seal(byte[] plaintext, int offset, int length, byte[] out, int outOffset)
+            throws GeneralSecurityException {
+        ivs.get().next(out, outOffset);
+        Cipher cipher = ciphers.get();
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH * 8, out, outOffset, IV_LENGTH));
+        return IV_LENGTH + cipher.doFinal(plaintext, offset, length, out, outOffset + IV_LENGTH);
+    }
+
+    /**
+     * Encrypts the remaining bytes of {@code plaintext} into {@code out}.
+     *
+     * @return the number of bytes written
+     */
+    public int seal(ByteBuffer plaintext, ByteBuffer out) throws GeneralSecurityException {
+        byte[] iv = new byte[IV_LENGTH];
+        ivs.get().next(iv, 0);
+        Cipher cipher = ciphers.get();
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH * 8, iv));
+        out.put(iv);
+        return IV_LENGTH + cipher.doFinal(plaintext, out);
+    }
+
+    public byte[] open(byte[] sealed, int offset, int length) throws GeneralSecurityException {
+        checkSealedLength(length);
+        Cipher cipher = ciphers.get();
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH * 8, sealed, offset, IV_LENGTH));
+        return cipher.doFinal(sealed, offset + IV_LENGTH, length - IV_LENGTH);
+    }
+
+    /**
+     * Decrypts into {@code out}, which needs {@link #openedLength(int)} bytes
+     * from {@code outOffset}.
+     *
+     * @return the number of bytes written
+     */
+    public int open(byte[] sealed, int offset, int length, byte[] out, int outOffset)
+            throws GeneralSecurityException {
+        checkSealedLength(length);
+        Cipher cipher = ciphers.get();
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH * 8, sealed, offset, IV_LENGTH));
+        return cipher.doFinal(sealed, offset + IV_LENGTH, length - IV_LENGTH, out, outOffset);
+    }
+
+    /**
+     * Decrypts the remaining bytes of {@code sealed} into {@code out}.
+     *
+     * @return the number of bytes written
+     */
+    public int open(ByteBuffer sealed, ByteBuffer out) throws GeneralSecurityException {
+        checkSealedLength(sealed.remaining());
+        byte[] iv = new byte[IV_LENGTH];
+        sealed.get(iv);
+        Cipher cipher = ciphers.get();
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH * 8, iv));
+        return cipher.doFinal(sealed, out);
+    }
+
+    private static void checkSealedLength(int length) throws GeneralSecurityException {
+        if (length < IV_LENGTH + TAG_LENGTH) {
+            throw new GeneralSecurityException("Sealed value is too short");
+        }
+    }
+
+    private static Cipher newCipher() {
+        try {
+            return Cipher.getInstance(ALGORITHM);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ALGORITHM + " is not available", ex);
+        }
+    }
+
+    /**
+     * 96-bit big-endian counter: 32 high bits and 64 low bits with carry.
+     */
+    private static final class IvCounter {
+
+        private final SecureRandom seedRandom;
+        private int high;
+        private long low;
+        private int remaining;
+
+        IvCounter(SecureRandom seedRandom) {
+            this.seedRandom = seedRandom;
+        }
+
+        void next(byte[] out, int offset) {
+            if (remaining == 0) {
+                high = seedRandom.nextInt();
+                low = seedRandom.nextLong();
+                remaining = IVS_PER_SEED;
+            }
+            remaining--;
+            if (++low == 0) {
+                high++;
+            }
+            for (int i = 0; i < 4; i++) {
+                out[offset + i] = (byte) (high >>> (24 - 8 * i));
+            }
+            for (int i = 0; i < 8; i++) {
+                out[offset + 4 + i] = (byte) (low >>> (56 - 8 * i));
+            }
+        }
+    }
+}
@@ -1,31 +1,28 @@
 package passvault.vaultservice.service;
 
 import java.nio.charset.StandardCharsets;
-import java.security.SecureRandom;
 import java.util.Base64;
-import javax.crypto.Cipher;
-import javax.crypto.spec.GCMParameterSpec;
-import javax.crypto.spec.SecretKeySpec;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import passvault.vaultservice.exception.EncryptionException;
 
+/**
+ * Encrypts entry fields as Base64 of {@code iv || ciphertext || tag}; the
+ * AES-GCM work is done by a shared {@link AesGcmEngine}.
+ */
 @Service
 public class EncryptionService {
 
-    private static final String ALGORITHM = "AES/GCM/NoPadding";
-    private static final int GCM_IV_LENGTH = 12;
-    private static final int GCM_TAG_LENGTH = 128;
     private static final int REQUIRED_KEY_BYTES = 32;
 
-    private final byte[] keyBytes;
-    private final SecureRandom secureRandom = new SecureRandom();
+    private final AesGcmEngine engine;
 
     public EncryptionService(@Value("${encryption.key}") String encryptionKey) {
-        this.keyBytes = encryptionKey.getBytes(StandardCharsets.UTF_8);
-        if (this.keyBytes.length != REQUIRED_KEY_BYTES) {
+        byte[] keyBytes = encryptionKey.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length != REQUIRED_KEY_BYTES) {
             throw new IllegalArgumentException("Encryption key must be exactly 32 bytes");
         }
+        this.engine = new AesGcmEngine(keyBytes);
     }
 
     public String encrypt(String plainText) {
@@ -33,20 +30,8 @@ public class EncryptionService {
             return plainText;
         }
         try {
-            byte[] iv = new byte[GCM_IV_LENGTH];
-            secureRandom.nextBytes(iv);
-
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            SecretKeySpec keySpec = new SecretKeySpec(keyBytes, "AES");
-            GCMParameterSpec gcmSpec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
-            cipher.init(Cipher.ENCRYPT_MODE, keySpec, gcmSpec);
-
-            byte[] encrypted = cipher.doFinal(plainText.getBytes(StandardCharsets.UTF_8));
-            byte[] combined = new byte[iv.length + encrypted.length];
-            System.arraycopy(iv, 0, combined, 0, iv.length);
-            System.arraycopy(encrypted, 0, combined, iv.length, encrypted.length);
-
-            return Base64.getEncoder().encodeToString(combined);
+            byte[] plain = plainText.getBytes(StandardCharsets.UTF_8);
+            return Base64.getEncoder().encodeToString(engine.seal(plain, 0, plain.length));
         } catch (Exception ex) {
             throw new EncryptionException("Failed to encrypt value", ex);
         }
@@ -57,20 +42,8 @@ public class EncryptionService {
             return cipherText;
         }
         try {
-            byte[] combined = Base64.getDecoder().decode(cipherText);
-            byte[] iv = new byte[GCM_IV_LENGTH];
-            byte[] encrypted = new byte[combined.length - GCM_IV_LENGTH];
-
-            System.arraycopy(combined, 0, iv, 0, iv.length);
-            System.arraycopy(combined, iv.length, encrypted, 0, encrypted.length);
-
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            SecretKeySpec keySpec = new SecretKeySpec(keyBytes, "AES");
-            GCMParameterSpec gcmSpec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
-            cipher.init(Cipher.DECRYPT_MODE, keySpec, gcmSpec);
-
-            byte[] decrypted = cipher.doFinal(encrypted);
-            return new String(decrypted, StandardCharsets.UTF_8);
+            byte[] sealed = Base64.getDecoder().decode(cipherText);
+            return new String(engine.open(sealed, 0, sealed.length), StandardCharsets.UTF_8);
         } catch (Exception ex) {
             throw new EncryptionException("Failed to decrypt value", ex);
         }
@@ -0,0 +1,38 @@
+package passvault.vaultservice.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position after the last entry of a page in (createdAt DESC, id) order,
+ * encoded as an opaque URL-safe token.
+ */
+record EntryCursor(LocalDateTime createdAt, UUID id) {
+
+  private static final char SEPARATOR = '|';
+
+  String encode() {
+    String raw = createdAt + String.valueOf(SEPARATOR) + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+   */
+  static EntryCursor decode(String token) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      int separator = raw.indexOf(SEPARATOR);
+      if (separator < 0) {
+        throw new IllegalArgumentException("Invalid cursor");
+      }
+      return new EntryCursor(LocalDateTime.parse(raw.substring(0, separator)),
+          UUID.fromString(raw.substring(separator + 1)));
+    } catch (DateTimeParseException ex) {
+      throw new IllegalArgumentException("Invalid cursor", ex);
+    }
+  }
+}
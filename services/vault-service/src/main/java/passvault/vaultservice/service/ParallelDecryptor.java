@@ -0,0 +1,120 @@
+package passvault.vaultservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import passvault.vaultservice.exception.EncryptionException;
+
+/**
+ * Decrypts the fields of large reads on a dedicated fork-join pool. Batches
+ * below {@code parallel-threshold} values stay on the caller thread. Results
+ * keep the input order, and the first {@link EncryptionException} stops the
+ * remaining work and is rethrown to the caller.
+ * <p>
+ * Only ciphertext strings cross threads; entities (and their lazy
+ * associations) are never touched by the pool.
+ */
+@Component
+public class ParallelDecryptor implements DisposableBean {
+
+  private static final int MIN_LEAF_SIZE = 16;
+
+  private final EncryptionService encryptionService;
+  private final ForkJoinPool pool;
+  private final int threshold;
+  private final Timer serialTimer;
+  private final Timer parallelTimer;
+
+  public ParallelDecryptor(EncryptionService encryptionService, MeterRegistry meterRegistry,
+      @Value("${vault.decrypt.parallel-threshold:192}") int threshold,
+      @Value("${vault.decrypt.parallelism:0}") int parallelism) {
+    this.encryptionService = encryptionService;
+    this.threshold = threshold;
+    this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+        pool -> {
+          ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+          thread.setName("vault-decrypt-" + thread.getPoolIndex());
+          return thread;
+        }, null, false);
+    this.serialTimer = Timer.builder("vault.decrypt.duration")
+        .description("Time spent decrypting the fields of one request")
+        .tag("mode", "serial")
+        .register(meterRegistry);
+    this.parallelTimer = Timer.builder("vault.decrypt.duration")
+        .description("Time spent decrypting the fields of one request")
+        .tag("mode", "parallel")
+        .register(meterRegistry);
+  }
+
+  /**
+   * @return the plaintexts, in the order of {@code cipherTexts}
+   */
+  public List<String> decryptAll(List<String> cipherTexts) {
+    String[] plainTexts = new String[cipherTexts.size()];
+    if (plainTexts.length < threshold || pool.getParallelism() == 1) {
+      serialTimer.record(() -> {
+        for (int i = 0; i < plainTexts.length; i++) {
+          plainTexts[i] = encryptionService.decrypt(cipherTexts.get(i));
+        }
+      });
+    } else {
+      int leafSize = Math.max(MIN_LEAF_SIZE, plainTexts.length / (pool.getParallelism() * 4));
+      parallelTimer.record(() -> pool.invoke(new DecryptTask(cipherTexts, plainTexts, 0, plainTexts.length,
+          leafSize, new Failure())));
+    }
+    return Arrays.asList(plainTexts);
+  }
+
+  @Override
+  public void destroy() {
+    pool.shutdownNow();
+  }
+
+  private static final class Failure {
+    volatile boolean raised;
+  }
+
+  private final class DecryptTask extends RecursiveAction {
+
+    private final List<String> cipherTexts;
+    private final String[] plainTexts;
+    private final int from;
+    private final int to;
+    private final int leafSize;
+    private final Failure failure;
+
+    DecryptTask(List<String> cipherTexts, String[] plainTexts, int from, int to, int leafSize, Failure failure) {
+      this.cipherTexts = cipherTexts;
+      this.plainTexts = plainTexts;
+      this.from = from;
+      this.to = to;
+      this.leafSize = leafSize;
+      this.failure = failure;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > leafSize) {
+        int middle = (from + to) >>> 1;
+        invokeAll(new DecryptTask(cipherTexts, plainTexts, from, middle, leafSize, failure),
+            new DecryptTask(cipherTexts, plainTexts, middle, to, leafSize, failure));
+        return;
+      }
+      for (int i = from; i < to && !failure.raised; i++) {
+        try {
+          plainTexts[i] = encryptionService.decrypt(cipherTexts.get(i));
+        } catch (EncryptionException ex) {
+          failure.raised = true;
+          throw ex;
+        }
+      }
+    }
+  }
+}
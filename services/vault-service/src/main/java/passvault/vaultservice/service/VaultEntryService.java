@@ -1,14 +1,23 @@
 package passvault.vaultservice.service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import passvault.vaultservice.dto.CategoryResponse;
+import passvault.vaultservice.dto.CursorPage;
+import passvault.vaultservice.dto.SecretField;
 import passvault.vaultservice.dto.VaultEntryRequest;
 import passvault.vaultservice.dto.VaultEntryResponse;
+import passvault.vaultservice.dto.VaultEntrySecrets;
+import passvault.vaultservice.dto.VaultEntrySummary;
 import passvault.vaultservice.entity.Category;
 import passvault.vaultservice.entity.VaultEntry;
 import passvault.vaultservice.exception.ResourceNotFoundException;
@@ -23,14 +32,79 @@ public class VaultEntryService {
   private final VaultEntryRepository vaultEntryRepository;
   private final CategoryRepository categoryRepository;
   private final EncryptionService encryptionService;
+  private final ParallelDecryptor parallelDecryptor;
 
+  @Value("${vault.list.default-page-size:50}")
+  private int defaultPageSize;
+
+  @Value("${vault.list.max-page-size:200}")
+  private int maxPageSize;
+
+  /**
+   * Returns one page of the user's entries, newest first. Pass the previous
+   * page's nextCursor to continue; the page size is capped at max-page-size.
+   */
   @Transactional(readOnly = true)
-  public List<VaultEntryResponse> listEntries(UUID userId) {
+  public CursorPage<VaultEntryResponse> listEntries(UUID userId, Integer limit, String cursor, UUID categoryId) {
     Objects.requireNonNull(userId, "userId is required");
-    return vaultEntryRepository.findAllByUserIdOrderByCreatedAtDesc(userId)
-        .stream()
-        .map(this::toResponse)
-        .toList();
+    return page(limit, cursor,
+        (after, fetch) -> {
+          if (categoryId == null) {
+            return after == null
+                ? vaultEntryRepository.findFirstPage(userId, fetch)
+                : vaultEntryRepository.findPageAfter(userId, after.createdAt(), after.id(), fetch);
+          }
+          return after == null
+              ? vaultEntryRepository.findFirstPageInCategory(userId, categoryId, fetch)
+              : vaultEntryRepository.findPageAfterInCategory(userId, categoryId, after.createdAt(), after.id(),
+                  fetch);
+        },
+        entry -> new EntryCursor(entry.getCreatedAt(), entry.getId()),
+        this::toResponses);
+  }
+
+  /**
+   * Same paging as {@link #listEntries} but without secrets: nothing is
+   * decrypted and the ciphertext columns are not selected.
+   */
+  @Transactional(readOnly = true)
+  public CursorPage<VaultEntrySummary> listSummaries(UUID userId, Integer limit, String cursor, UUID categoryId) {
+    Objects.requireNonNull(userId, "userId is required");
+    return page(limit, cursor,
+        (after, fetch) -> {
+          if (categoryId == null) {
+            return after == null
+                ? vaultEntryRepository.findFirstSummaryPage(userId, fetch)
+                : vaultEntryRepository.findSummaryPageAfter(userId, after.createdAt(), after.id(), fetch);
+          }
+          return after == null
+              ? vaultEntryRepository.findFirstSummaryPageInCategory(userId, categoryId, fetch)
+              : vaultEntryRepository.findSummaryPageAfterInCategory(userId, categoryId, after.createdAt(),
+                  after.id(), fetch);
+        },
+        summary -> new EntryCursor(summary.getCreatedAt(), summary.getId()),
+        summaries -> summaries);
+  }
+
+  /**
+   * Decrypts only the requested secrets of one entry; all of them when no
+   * field is given.
+   */
+  @Transactional(readOnly = true)
+  public VaultEntrySecrets revealSecrets(UUID id, UUID userId, Set<SecretField> fields) {
+    Objects.requireNonNull(userId, "userId is required");
+    VaultEntryRepository.EntryCiphertexts ciphertexts = vaultEntryRepository.findCiphertextsByIdAndUserId(id, userId)
+        .orElseThrow(() -> new ResourceNotFoundException("Vault entry not found"));
+    boolean all = fields == null || fields.isEmpty();
+    return VaultEntrySecrets.builder()
+        .id(id)
+        .username(all || fields.contains(SecretField.USERNAME)
+            ? encryptionService.decrypt(ciphertexts.getUsernameEncrypted()) : null)
+        .password(all || fields.contains(SecretField.PASSWORD)
+            ? encryptionService.decrypt(ciphertexts.getPasswordEncrypted()) : null)
+        .notes(all || fields.contains(SecretField.NOTES)
+            ? encryptionService.decrypt(ciphertexts.getNotesEncrypted()) : null)
+        .build();
   }
 
   @Transactional(readOnly = true)
@@ -93,7 +167,61 @@ public class VaultEntryService {
         .orElseThrow(() -> new ResourceNotFoundException("Category not found"));
   }
 
+  /**
+   * Fetches one row more than the page size to tell whether another page
+   * follows, and encodes the last returned row as the next cursor.
+   */
+  private <T, R> CursorPage<R> page(Integer limit, String cursor, PageQuery<T> query,
+      Function<T, EntryCursor> positionOf, Function<List<T>, List<R>> mapper) {
+    int pageSize = limit == null ? defaultPageSize : Math.min(Math.max(limit, 1), maxPageSize);
+    EntryCursor after = cursor == null || cursor.isEmpty() ? null : EntryCursor.decode(cursor);
+    List<T> rows = query.fetch(after, Limit.of(pageSize + 1));
+
+    String nextCursor = null;
+    if (rows.size() > pageSize) {
+      rows = rows.subList(0, pageSize);
+      nextCursor = positionOf.apply(rows.get(pageSize - 1)).encode();
+    }
+    return CursorPage.<R>builder()
+        .items(mapper.apply(rows))
+        .nextCursor(nextCursor)
+        .build();
+  }
+
+  @FunctionalInterface
+  private interface PageQuery<T> {
+    List<T> fetch(EntryCursor after, Limit limit);
+  }
+
+  /**
+   * Decrypts the fields of all entries in one batch, which runs in parallel
+   * for large pages.
+   */
+  private List<VaultEntryResponse> toResponses(List<VaultEntry> entries) {
+    List<String> cipherTexts = new ArrayList<>(entries.size() * 3);
+    for (VaultEntry entry : entries) {
+      cipherTexts.add(entry.getUsernameEncrypted());
+      cipherTexts.add(entry.getPasswordEncrypted());
+      cipherTexts.add(entry.getNotesEncrypted());
+    }
+    List<String> plainTexts = parallelDecryptor.decryptAll(cipherTexts);
+
+    List<VaultEntryResponse> responses = new ArrayList<>(entries.size());
+    for (int i = 0; i < entries.size(); i++) {
+      responses.add(toResponse(entries.get(i), plainTexts.get(3 * i), plainTexts.get(3 * i + 1),
+          plainTexts.get(3 * i + 2)));
+    }
+    return responses;
+  }
+
   private VaultEntryResponse toResponse(VaultEntry entry) {
+    return toResponse(entry,
+        encryptionService.decrypt(entry.getUsernameEncrypted()),
+        encryptionService.decrypt(entry.getPasswordEncrypted()),
+        encryptionService.decrypt(entry.getNotesEncrypted()));
+  }
+
+  private VaultEntryResponse toResponse(VaultEntry entry, String username, String password, String notes) {
     CategoryResponse categoryResponse = null;
     if (entry.getCategory() != null) {
       Category cat = entry.getCategory();
@@ -108,10 +236,10 @@ public class VaultEntryService {
         .id(entry.getId())
         .userId(entry.getUserId())
         .title(entry.getTitle())
-        .username(encryptionService.decrypt(entry.getUsernameEncrypted()))
-        .password(encryptionService.decrypt(entry.getPasswordEncrypted()))
+        .username(username)
+        .password(password)
         .url(entry.getUrl())
-        .notes(encryptionService.decrypt(entry.getNotesEncrypted()))
+        .notes(notes)
         .category(categoryResponse)
         .createdAt(entry.getCreatedAt())
         .updatedAt(entry.getUpdatedAt())
@@ -0,0 +1,115 @@
+package passvault.vaultservice.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import passvault.vaultservice.service.AesGcmEngine;
+import passvault.vaultservice.service.EncryptionService;
+
+/**
+ * Compares field encryption as EncryptionService used to do it (a new Cipher
+ * and key spec per call, IV split off with array copies) with the
+ * {@link AesGcmEngine}, both through the String API and through the byte[]
+ * entry points writing into a reused buffer.
+ * <p>
+ * Add {@code -prof gc} for bytes allocated per op ({@code gc.alloc.rate.norm})
+ * and {@code -t 4} to see contention on the shared SecureRandom:
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="EncryptionBenchmark -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncryptionBenchmark {
+
+    private static final String KEY = "12345678901234567890123456789012";
+    private static final byte[] KEY_BYTES = KEY.getBytes(StandardCharsets.UTF_8);
+    private static final SecureRandom LEGACY_RANDOM = new SecureRandom();
+
+    @Param({"16", "128", "512", "2048"})
+    private int payloadSize;
+
+    private EncryptionService encryptionService;
+    private AesGcmEngine engine;
+    private String plainText;
+    private String cipherText;
+    private byte[] plain;
+    private byte[] sealed;
+    private byte[] sealBuffer;
+    private byte[] openBuffer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        encryptionService = new EncryptionService(KEY);
+        engine = new AesGcmEngine(KEY_BYTES);
+        plainText = "x".repeat(payloadSize);
+        cipherText = encryptionService.encrypt(plainText);
+        plain = plainText.getBytes(StandardCharsets.UTF_8);
+        sealed = engine.seal(plain, 0, plain.length);
+        sealBuffer = new byte[AesGcmEngine.sealedLength(plain.length)];
+        openBuffer = new byte[plain.length];
+    }
+
+    @Benchmark
+    public String legacyEncrypt() throws Exception {
+        byte[] iv = new byte[12];
+        LEGACY_RANDOM.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(KEY_BYTES, "AES"), new GCMParameterSpec(128, iv));
+        byte[] encrypted = cipher.doFinal(plainText.getBytes(StandardCharsets.UTF_8));
+        byte[] combined = new byte[iv.length + encrypted.length];
+        System.arraycopy(iv, 0, combined, 0, iv.length);
+        System.arraycopy(encrypted, 0, combined, iv.length, encrypted.length);
+        return Base64.getEncoder().encodeToString(combined);
+    }
+
+    @Benchmark
+    public String legacyDecrypt() throws Exception {
+        byte[] combined = Base64.getDecoder().decode(cipherText);
+        byte[] iv = new byte[12];
+        byte[] encrypted = new byte[combined.length - 12];
+        System.arraycopy(combined, 0, iv, 0, iv.length);
+        System.arraycopy(combined, iv.length, encrypted, 0, encrypted.length);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(KEY_BYTES, "AES"), new GCMParameterSpec(128, iv));
+        return new String(cipher.doFinal(encrypted), StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String serviceEncrypt() {
+        return encryptionService.encrypt(plainText);
+    }
+
+    @Benchmark
+    public String serviceDecrypt() {
+        return encryptionService.decrypt(cipherText);
+    }
+
+    @Benchmark
+    public int engineSealInto() throws Exception {
+        return engine.seal(plain, 0, plain.length, sealBuffer, 0);
+    }
+
+    @Benchmark
+    public int engineOpenInto() throws Exception {
+        return engine.open(sealed, 0, sealed.length, openBuffer, 0);
+    }
+}
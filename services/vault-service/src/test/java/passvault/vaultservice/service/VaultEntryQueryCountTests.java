@@ -0,0 +1,93 @@
+package passvault.vaultservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import passvault.vaultservice.dto.VaultEntryRequest;
+import passvault.vaultservice.dto.VaultEntryResponse;
+import passvault.vaultservice.entity.Category;
+import passvault.vaultservice.repository.CategoryRepository;
+
+/**
+ * Listing and reading entries must not load categories one by one: the
+ * number of statements stays the same whatever the vault size.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class VaultEntryQueryCountTests {
+
+    @Autowired
+    private VaultEntryService vaultEntryService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void listEntriesIssuesOneStatementWhateverTheVaultSize() {
+        UUID smallVault = createVault(3, 2);
+        UUID largeVault = createVault(60, 12);
+
+        assertThat(statementsFor(() -> vaultEntryService.listEntries(smallVault, 100, null, null))).isEqualTo(1);
+        assertThat(statementsFor(() -> vaultEntryService.listEntries(largeVault, 100, null, null))).isEqualTo(1);
+    }
+
+    @Test
+    void listSummariesIssuesOneStatementWhateverTheVaultSize() {
+        UUID smallVault = createVault(3, 2);
+        UUID largeVault = createVault(60, 12);
+
+        assertThat(statementsFor(() -> vaultEntryService.listSummaries(smallVault, 100, null, null))).isEqualTo(1);
+        assertThat(statementsFor(() -> vaultEntryService.listSummaries(largeVault, 100, null, null))).isEqualTo(1);
+    }
+
+    @Test
+    void getEntryLoadsItsCategoryInTheSameStatement() {
+        UUID userId = createVault(1, 1);
+        VaultEntryResponse entry = vaultEntryService.listEntries(userId, 1, null, null).getItems().get(0);
+
+        assertThat(statementsFor(() -> vaultEntryService.getEntry(entry.getId(), userId))).isEqualTo(1);
+    }
+
+    private long statementsFor(Runnable call) {
+        statistics.clear();
+        call.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private UUID createVault(int entries, int categories) {
+        UUID userId = UUID.randomUUID();
+        List<Category> created = new ArrayList<>();
+        for (int i = 0; i < categories; i++) {
+            created.add(categoryRepository.save(Category.builder().userId(userId).name("category-" + i).build()));
+        }
+        for (int i = 0; i < entries; i++) {
+            vaultEntryService.createEntry(userId, VaultEntryRequest.builder()
+                    .title("entry-" + i)
+                    .username("user-" + i)
+                    .password("password-" + i)
+                    .categoryId(created.get(i % categories).getId())
+                    .build());
+        }
+        return userId;
+    }
+}